@@ -0,0 +1,36 @@
+package com.storage.balancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// стоит снаружи NettyWriteResponseFilter: его цепочка завершается, когда тело ответа дописано клиенту.
+// doFinally срабатывает и при ошибке или отмене запроса клиентом, поэтому счётчик не утекает
+@Component
+public class InstanceReleaseFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStats stats;
+
+    public InstanceReleaseFilter(InstanceStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signal -> {
+            if (exchange.getAttributes().remove(InstanceStatsFilter.INSTANCE_ATTRIBUTE) instanceof ServiceInstance instance) {
+                stats.finish(instance);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
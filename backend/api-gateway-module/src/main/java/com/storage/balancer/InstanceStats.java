@@ -0,0 +1,65 @@
+package com.storage.balancer;
+
+import com.storage.balancer.props.LoadBalancingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// общие для всех балансировщиков счётчики по экземплярам: сколько запросов в работе и сколько ошибок подряд
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstanceStats {
+    private final LoadBalancingProperties properties;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public int outstanding(ServiceInstance instance) {
+        return get(instance).outstanding.get();
+    }
+
+    public boolean isEjected(ServiceInstance instance) {
+        return get(instance).ejectedUntil.get() > System.nanoTime();
+    }
+
+    public void start(ServiceInstance instance) {
+        get(instance).outstanding.incrementAndGet();
+    }
+
+    public void finish(ServiceInstance instance) {
+        get(instance).outstanding.decrementAndGet();
+    }
+
+    public void success(ServiceInstance instance) {
+        get(instance).failures.set(0);
+    }
+
+    public void failure(ServiceInstance instance) {
+        Stats current = get(instance);
+        if (current.failures.incrementAndGet() >= properties.getMaxFailures()) {
+            current.failures.set(0);
+            current.ejectedUntil.set(System.nanoTime() + properties.getEjectionTime().toNanos());
+            log.warn("Instance {} of {} ejected for {}", key(instance), instance.getServiceId(), properties.getEjectionTime());
+        }
+    }
+
+    private Stats get(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new Stats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static class Stats {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong ejectedUntil = new AtomicLong(Long.MIN_VALUE);
+    }
+}
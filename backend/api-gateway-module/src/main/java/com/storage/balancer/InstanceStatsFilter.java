@@ -0,0 +1,59 @@
+package com.storage.balancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+// считает запросы в работе и ошибки по выбранному балансировщиком экземпляру.
+// Цепочка здесь завершается, как только пришли заголовки от сервиса, а тело пишется позже,
+// поэтому запрос снимается со счёта в InstanceReleaseFilter, после записи ответа клиенту
+@Component
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    public static final String INSTANCE_ATTRIBUTE = InstanceStatsFilter.class.getName() + ".instance";
+
+    private final InstanceStats stats;
+
+    public InstanceStatsFilter(InstanceStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = chosen.getServer();
+        stats.start(instance);
+        // при повторе запроса прошлая попытка уже закончилась
+        Object previous = exchange.getAttributes().put(INSTANCE_ATTRIBUTE, instance);
+        if (previous instanceof ServiceInstance attempt) {
+            stats.finish(attempt);
+        }
+        return chain.filter(exchange)
+                .doOnSuccess(v -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is5xxServerError()) {
+                        stats.failure(instance);
+                    } else {
+                        stats.success(instance);
+                    }
+                })
+                .doOnError(e -> stats.failure(instance));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.storage.balancer;
+
+import com.storage.balancer.props.LoadBalancingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// выбирает экземпляр с наименьшим числом запросов в работе; выведенные из ротации пропускаются,
+// чтение по возможности уходит на реплики, запись - только на основные экземпляры
+public class LeastOutstandingLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Set<HttpMethod> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final InstanceStats stats;
+    private final LoadBalancingProperties properties;
+
+    public LeastOutstandingLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers,
+                                        InstanceStats stats, LoadBalancingProperties properties) {
+        this.suppliers = suppliers;
+        this.stats = stats;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        boolean read = isRead(request);
+        return supplier.get(request).next().map(instances -> choose(instances, read));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, boolean read) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> healthy = instances.stream().filter(instance -> !stats.isEjected(instance)).toList();
+        // если выведены все, лучше попробовать хоть кого-то, чем сразу отвечать ошибкой
+        List<ServiceInstance> candidates = healthy.isEmpty() ? instances : healthy;
+
+        List<ServiceInstance> replicas = candidates.stream().filter(this::isReplica).toList();
+        List<ServiceInstance> primaries = candidates.stream().filter(instance -> !isReplica(instance)).toList();
+        List<ServiceInstance> preferred = read
+                ? (replicas.isEmpty() ? primaries : replicas)
+                : (primaries.isEmpty() ? candidates : primaries);
+
+        return new DefaultResponse(leastOutstanding(preferred));
+    }
+
+    // обход начинается со случайной позиции, чтобы при равной загрузке не бить всегда в первый экземпляр
+    private ServiceInstance leastOutstanding(List<ServiceInstance> instances) {
+        int start = ThreadLocalRandom.current().nextInt(instances.size());
+        ServiceInstance best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get((start + i) % instances.size());
+            int outstanding = stats.outstanding(instance);
+            if (outstanding < bestOutstanding) {
+                best = instance;
+                bestOutstanding = outstanding;
+            }
+        }
+        return best;
+    }
+
+    private boolean isReplica(ServiceInstance instance) {
+        return properties.getReplicaRole().equals(instance.getMetadata().get("role"));
+    }
+
+    private static boolean isRead(Request request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            return READ_METHODS.contains(context.getClientRequest().getHttpMethod());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.storage.balancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastOutstandingConfiguration.class)
+public class LoadBalancerConfig {
+}
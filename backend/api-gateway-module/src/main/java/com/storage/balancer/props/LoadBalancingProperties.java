@@ -0,0 +1,18 @@
+package com.storage.balancer.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public class LoadBalancingProperties {
+    // столько ошибок подряд (5xx, отказ соединения, таймаут) - и экземпляр выводится из ротации
+    private int maxFailures = 5;
+    private Duration ejectionTime = Duration.ofSeconds(30);
+    // экземпляры с таким значением metadata.role обслуживают чтение, запись на них не отправляется
+    private String replicaRole = "replica";
+}
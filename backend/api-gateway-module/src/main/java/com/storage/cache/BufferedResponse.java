@@ -0,0 +1,38 @@
+package com.storage.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BufferedResponse {
+    private static final List<String> HOP_BY_HOP = List.of(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "X-Cache");
+
+    private HttpStatusCode status;
+    private HttpHeaders headers;
+    private byte[] body;
+
+    // копия, не связанная с живым ответом: её можно хранить и отдавать другим запросам
+    public BufferedResponse detach() {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (HOP_BY_HOP.stream().noneMatch(name::equalsIgnoreCase)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        copy.setContentLength(body.length);
+        return new BufferedResponse(status, copy, body);
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.storage.cache;
+
+import com.storage.cache.props.CoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// одинаковые GET, пришедшие пока первый ещё выполняется, ждут его ответ вместо своего похода в сервис.
+// Включается явно в маршруте, после JwtAuthenticationFilter
+@Component
+public class CoalescingFilter extends AbstractGatewayFilterFactory<CoalescingFilter.Config> {
+
+    private static final List<String> CONDITIONAL_HEADERS = List.of(HttpHeaders.RANGE, HttpHeaders.IF_RANGE,
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+
+    private final CoalescingProperties properties;
+    private final Map<String, Sinks.One<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter shared;
+
+    public CoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.properties = properties;
+        this.shared = Counter.builder("gateway.coalescing.shared")
+                .description("Requests answered with a response of an identical in-flight request")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("gateway.coalescing.in_flight", Tags.empty(), inFlight);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange.getRequest());
+            Sinks.One<BufferedResponse> flight = Sinks.one();
+            Sinks.One<BufferedResponse> leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                return await(exchange, chain, leader);
+            }
+
+            ResponseCaptureFilter.capture(exchange, properties.getMaxBodyBytes(), response -> {
+                // новые запросы с этого момента идут уже за свежими данными
+                inFlight.remove(key, flight);
+                // 206 или 304 ответили на условия лидера, ждущим раздаём только полный ответ
+                if (response.getStatus().value() == HttpStatus.OK.value()
+                        && response.getBody().length <= properties.getMaxBodyBytes()) {
+                    flight.tryEmitValue(response.detach());
+                } else {
+                    flight.tryEmitEmpty();
+                }
+            });
+            return chain.filter(exchange).doFinally(signal -> {
+                // ошибка, отмена или тело больше лимита, ушедшее потоком: ждущие пойдут в сервис сами
+                inFlight.remove(key, flight);
+                flight.tryEmitEmpty();
+            });
+        };
+    }
+
+    private Mono<Void> await(ServerWebExchange exchange, GatewayFilterChain chain, Sinks.One<BufferedResponse> leader) {
+        return leader.asMono()
+                .timeout(properties.getWaitTimeout(), Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(response -> {
+                    if (response.isEmpty()) {
+                        return chain.filter(exchange);
+                    }
+                    shared.increment();
+                    return response.get().writeTo(exchange.getResponse());
+                });
+    }
+
+    private String key(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        key.append('\n').append(request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+        // запросы части или с проверкой кэша клиента получают другой ответ, чем обычный GET
+        for (String header : CONDITIONAL_HEADERS) {
+            key.append('\n').append(header).append(':').append(request.getHeaders().getFirst(header));
+        }
+        for (String header : properties.getKeyHeaders()) {
+            key.append('\n').append(header).append(':').append(request.getHeaders().getFirst(header));
+        }
+        return key.toString();
+    }
+
+    public static class Config {
+    }
+}
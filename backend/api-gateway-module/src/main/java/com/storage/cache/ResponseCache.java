@@ -0,0 +1,120 @@
+package com.storage.cache;
+
+import com.storage.cache.props.ResponseCacheProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+    private final ResponseCacheProperties properties;
+
+    // access-order: при переполнении вытесняются давно не читанные ответы
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // поколение ресурса растёт при каждой инвалидации; ответ, запрошенный до неё, уже не сохраняется
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt.isBefore(Instant.now())) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public long generation(String resource) {
+        return generations.computeIfAbsent(resource, r -> new AtomicLong()).get();
+    }
+
+    public void put(String key, String resource, long generation, BufferedResponse response, Instant expiresAt) {
+        long size = response.getBody().length;
+        if (size > properties.getMaxEntryBytes()) {
+            return;
+        }
+        synchronized (this) {
+            if (generation(resource) != generation) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(resource, response, Instant.now(), expiresAt));
+            totalBytes += size;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > properties.getMaxBytes() && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().response.getBody().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidate(String resource) {
+        generations.computeIfAbsent(resource, r -> new AtomicLong()).incrementAndGet();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.resource.equals(resource)) {
+                totalBytes -= entry.response.getBody().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    // сигнал должен дойти до кэша каждого экземпляра gateway, поэтому партиция назначается вручную
+    // и без группы: в брокере ничего не регистрируется, офсеты не коммитятся, чтение идёт с конца
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "reference-data", partitions = "0"),
+            autoStartup = "${gateway.response-cache.enabled:true}")
+    public void onReferenceDataChanged(ConsumerRecord<String, String> record) {
+        if (record.key() == null) {
+            return;
+        }
+        log.debug("Invalidating cached {} responses", record.key());
+        invalidate(record.key());
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.response.getBody().length;
+        }
+    }
+
+    public static class Entry {
+        private final String resource;
+        private final BufferedResponse response;
+        private final Instant storedAt;
+        private final Instant expiresAt;
+
+        private Entry(String resource, BufferedResponse response, Instant storedAt, Instant expiresAt) {
+            this.resource = resource;
+            this.response = response;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public BufferedResponse getResponse() {
+            return response;
+        }
+
+        public Instant getStoredAt() {
+            return storedAt;
+        }
+    }
+}
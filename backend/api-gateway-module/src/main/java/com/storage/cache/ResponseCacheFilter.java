@@ -0,0 +1,146 @@
+package com.storage.cache;
+
+import com.storage.cache.props.ResponseCacheProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ставится в маршрут после JwtAuthenticationFilter: ключ строится по заголовкам, которые тот выставил
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|,)\\s*max-age\\s*=\\s*(\\d+)");
+    private static final Set<HttpMethod> MODIFYING = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final List<String> NOT_STORABLE = List.of("no-store", "no-cache", "private");
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        super(Config.class);
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+            ServerHttpRequest request = exchange.getRequest();
+            String resource = resource(request);
+
+            // изменение справочника через этот экземпляр сбрасывает кэш сразу, не дожидаясь сигнала из Kafka
+            if (MODIFYING.contains(request.getMethod())) {
+                return chain.filter(exchange).doOnSuccess(v -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        cache.invalidate(resource);
+                    }
+                });
+            }
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(request);
+            List<String> requestCacheControl = request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL);
+            if (requestCacheControl.stream().noneMatch(v -> v.contains("no-cache"))) {
+                ResponseCache.Entry entry = cache.get(key);
+                if (entry != null) {
+                    return replay(exchange, entry);
+                }
+            }
+
+            long generation = cache.generation(resource);
+            ResponseCaptureFilter.capture(exchange, properties.getMaxEntryBytes(), response -> store(key, resource, generation, response));
+            exchange.getResponse().getHeaders().set("X-Cache", "MISS");
+            return chain.filter(exchange);
+        };
+    }
+
+    private void store(String key, String resource, long generation, BufferedResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatus().value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return;
+        }
+        String cacheControl = String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase(Locale.ROOT);
+        if (NOT_STORABLE.stream().anyMatch(cacheControl::contains)) {
+            return;
+        }
+
+        Duration ttl = properties.getTtl();
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        if (maxAge.find()) {
+            Duration upstream = Duration.ofSeconds(Long.parseLong(maxAge.group(1)));
+            if (upstream.isZero()) {
+                return;
+            }
+            ttl = upstream.compareTo(ttl) < 0 ? upstream : ttl;
+        }
+
+        // без ETag от сервиса считаем свой по телу, как ShallowEtagHeaderFilter; клиент получает его уже в этом ответе
+        if (headers.getETag() == null) {
+            headers.setETag("\"0" + DigestUtils.md5DigestAsHex(response.getBody()) + "\"");
+        }
+
+        cache.put(key, resource, generation, response.detach(), Instant.now().plus(ttl));
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        BufferedResponse cached = entry.getResponse();
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(HttpHeaders.AGE,
+                String.valueOf(Duration.between(entry.getStoredAt(), Instant.now()).toSeconds()));
+        response.getHeaders().set("X-Cache", "HIT");
+
+        String eTag = cached.getHeaders().getETag();
+        if (eTag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(eTag)) {
+            response.getHeaders().putAll(cached.getHeaders());
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        return cached.writeTo(response);
+    }
+
+    private String key(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        for (String header : properties.getKeyHeaders()) {
+            key.append('\n').append(header).append(':').append(request.getHeaders().getFirst(header));
+        }
+        return key.toString();
+    }
+
+    // первый сегмент пути после StripPrefix: units, templates - по нему приходит инвалидация
+    private static String resource(ServerHttpRequest request) {
+        String path = request.getURI().getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    public static class Config {
+    }
+}
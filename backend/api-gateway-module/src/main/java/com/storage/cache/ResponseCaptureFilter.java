@@ -0,0 +1,111 @@
+package com.storage.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// NettyWriteResponseFilter пишет ответ в тот exchange, который получил сам, поэтому подменить ответ
+// из фильтра маршрута нельзя. Здесь ответ оборачивается заранее, а буферизуется только если
+// фильтр маршрута положил в атрибуты получателя, и только до заданного размера: тело больше него
+// уходит клиенту потоком, а получатель не вызывается. Получатель видит живые заголовки ответа:
+// их ещё можно дополнить, а для хранения нужно копировать
+@Component
+public class ResponseCaptureFilter implements GlobalFilter, Ordered {
+
+    public static final String CAPTURE_ATTRIBUTE = ResponseCaptureFilter.class.getName() + ".capture";
+    public static final String CAPTURE_LIMIT_ATTRIBUTE = ResponseCaptureFilter.class.getName() + ".captureLimit";
+
+    // несколько фильтров маршрута могут ждать один и тот же ответ, получатели вызываются по очереди;
+    // буферизуется до наибольшего из лимитов, свой лимит каждый получатель проверяет сам
+    public static void capture(ServerWebExchange exchange, long maxBytes, Consumer<BufferedResponse> consumer) {
+        exchange.getAttributes().merge(CAPTURE_ATTRIBUTE, consumer,
+                (existing, added) -> ResponseCaptureFilter.<BufferedResponse>consumer(existing).andThen(consumer(added)));
+        exchange.getAttributes().merge(CAPTURE_LIMIT_ATTRIBUTE, maxBytes,
+                (existing, added) -> Math.max((Long) existing, (Long) added));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Consumer<T> consumer(Object value) {
+        return (Consumer<T>) value;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Consumer<BufferedResponse> capture = exchange.getAttribute(CAPTURE_ATTRIBUTE);
+                Long maxBytes = exchange.getAttribute(CAPTURE_LIMIT_ATTRIBUTE);
+                if (capture == null || maxBytes == null || getHeaders().getContentLength() > maxBytes) {
+                    return super.writeWith(body);
+                }
+                return super.writeWith(Flux.defer(() -> bounded(Flux.from(body), maxBytes, capture)));
+            }
+
+            // части копятся, пока тело помещается в лимит; при переполнении накопленное и остаток
+            // уходят клиенту как есть
+            private Flux<DataBuffer> bounded(Flux<? extends DataBuffer> body, long maxBytes,
+                                             Consumer<BufferedResponse> capture) {
+                List<DataBuffer> held = new ArrayList<>();
+                long[] size = {0};
+                boolean[] overflow = {false};
+                return body.<DataBuffer>concatMap(buffer -> {
+                            if (overflow[0]) {
+                                return Mono.just(buffer);
+                            }
+                            held.add(buffer);
+                            size[0] += buffer.readableByteCount();
+                            if (size[0] <= maxBytes) {
+                                return Mono.empty();
+                            }
+                            overflow[0] = true;
+                            List<DataBuffer> flushed = new ArrayList<>(held);
+                            held.clear();
+                            return Flux.fromIterable(flushed);
+                        })
+                        .concatWith(Mono.defer(() -> {
+                            if (overflow[0]) {
+                                return Mono.empty();
+                            }
+                            byte[] bytes = new byte[(int) size[0]];
+                            int offset = 0;
+                            for (DataBuffer buffer : held) {
+                                int length = buffer.readableByteCount();
+                                buffer.read(bytes, offset, length);
+                                offset += length;
+                                DataBufferUtils.release(buffer);
+                            }
+                            held.clear();
+
+                            capture.accept(new BufferedResponse(getStatusCode(), getHeaders(), bytes));
+                            return Mono.just(original.bufferFactory().wrap(bytes));
+                        }))
+                        .doFinally(signal -> {
+                            held.forEach(DataBufferUtils::release);
+                            held.clear();
+                        });
+            }
+        };
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.storage.cache.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+    // запросы с одинаковыми значениями этих заголовков видят одни и те же данные
+    private List<String> keyHeaders = List.of("X-User-Roles");
+    // сколько ждущий запрос готов ждать чужой ответ, потом идёт в сервис сам
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    // ответ больше этого не раздаётся ждущим, чтобы не держать его в памяти
+    private long maxBodyBytes = 4L * 1024 * 1024;
+}
@@ -0,0 +1,21 @@
+package com.storage.cache.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    // верхняя граница жизни ответа, max-age от сервиса может её только уменьшить
+    private Duration ttl = Duration.ofMinutes(5);
+    private long maxBytes = 16L * 1024 * 1024;
+    private long maxEntryBytes = 1024L * 1024;
+    // заголовки, которые выставляет JwtAuthenticationFilter и от которых может зависеть ответ
+    private List<String> keyHeaders = List.of("X-User-Roles");
+}
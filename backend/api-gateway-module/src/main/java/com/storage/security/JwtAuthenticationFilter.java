@@ -1,6 +1,5 @@
 package com.storage.security;
 
-import io.jsonwebtoken.Claims;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
@@ -15,6 +14,8 @@ import java.util.function.Predicate;
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
 
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".verifiedToken";
+
     private final JwtUtil jwtUtil;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
@@ -41,25 +42,25 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
                 final String token = request.getHeaders().getOrEmpty(HttpHeaders.AUTHORIZATION).get(0).substring(7);
 
+                final VerifiedToken verified;
                 try {
-                    if (!jwtUtil.validateToken(token)) {
-                        ServerHttpResponse response = exchange.getResponse();
-                        response.setStatusCode(HttpStatus.UNAUTHORIZED);
-                        return response.setComplete();
-                    }
-
-                    Claims claims = jwtUtil.getAllClaimsFromToken(token);
-                    exchange.getRequest().mutate()
-                            .header("X-User-Id", String.valueOf(claims.get("userId")))
-                            .header("X-User-Roles", String.valueOf(claims.get("roles")))
-                            .header("X-User-Mail", String.valueOf(claims.get("mail")))
-                            .build();
-
+                    verified = jwtUtil.verify(token);
                 } catch (Exception e) {
                     ServerHttpResponse response = exchange.getResponse();
                     response.setStatusCode(HttpStatus.UNAUTHORIZED);
                     return response.setComplete();
                 }
+
+                // заголовки перезаписываются, чтобы клиент не мог подставить свои X-User-*
+                ServerHttpRequest mutated = request.mutate()
+                        .headers(headers -> {
+                            headers.set("X-User-Id", verified.getUserId());
+                            headers.set("X-User-Roles", verified.getRoles());
+                            headers.set("X-User-Mail", verified.getMail());
+                        })
+                        .build();
+                exchange.getAttributes().put(VERIFIED_TOKEN_ATTRIBUTE, verified);
+                return chain.filter(exchange.mutate().request(mutated).build());
             }
             return chain.filter(exchange);
         };
@@ -1,14 +1,23 @@
 package com.storage.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.function.Function;
 
 @Component
@@ -17,15 +26,24 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.cache-size:10000}")
+    private int cacheSize;
+
     private Key key;
+    private JwtParser parser;
+
+    // хэш токена -> проверенные claims, живут до exp самого токена; при переполнении вытесняется
+    // давно не использованный, без обхода всего кэша
+    private final LinkedHashMap<String, VerifiedToken> verified = new LinkedHashMap<>(16, 0.75f, true);
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
@@ -45,6 +63,52 @@ public class JwtUtil {
     public Boolean validateToken(String token) {
         return !isTokenExpired(token);
     }
-}
 
+    // один разбор и одна проверка подписи на токен; повторные запросы с тем же токеном берут claims из кэша.
+    // просроченный, поддельный или не имеющий exp токен отклоняется исключением
+    public VerifiedToken verify(String token) {
+        String hash = hash(token);
+        Instant now = Instant.now();
+
+        synchronized (verified) {
+            VerifiedToken cached = verified.get(hash);
+            if (cached != null) {
+                if (cached.getExpiresAt().isAfter(now)) {
+                    return cached;
+                }
+                verified.remove(hash);
+            }
+        }
+
+        Claims claims = getAllClaimsFromToken(token);
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new JwtException("Token has no expiration");
+        }
+        VerifiedToken result = VerifiedToken.builder()
+                .userId(String.valueOf(claims.get("userId")))
+                .roles(String.valueOf(claims.get("roles")))
+                .mail(String.valueOf(claims.get("mail")))
+                .expiresAt(expiration.toInstant())
+                .build();
 
+        synchronized (verified) {
+            verified.put(hash, result);
+            Iterator<String> eldest = verified.keySet().iterator();
+            while (verified.size() > cacheSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return result;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.storage.security;
+
+import com.storage.security.props.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// должен стоять в маршруте после JwtAuthenticationFilter: ключом служит userId из проверенного токена
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Set<HttpMethod> READ_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final RateLimitProperties properties;
+    private final Map<String, TokenBucket> readBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> writeBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final Counter throttledReads;
+    private final Counter throttledWrites;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.properties = properties;
+        this.throttledReads = Counter.builder("gateway.ratelimit.throttled")
+                .description("Requests rejected by the per-user rate limit")
+                .tag("kind", "read")
+                .register(meterRegistry);
+        this.throttledWrites = Counter.builder("gateway.ratelimit.throttled")
+                .description("Requests rejected by the per-user rate limit")
+                .tag("kind", "write")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("gateway.ratelimit.buckets", Tags.of("kind", "read"), readBuckets);
+        meterRegistry.gaugeMapSize("gateway.ratelimit.buckets", Tags.of("kind", "write"), writeBuckets);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            VerifiedToken verified = exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+            // открытые эндпоинты (signin, health) сюда приходят без токена
+            if (!properties.isEnabled() || verified == null) {
+                return chain.filter(exchange);
+            }
+
+            boolean read = READ_METHODS.contains(exchange.getRequest().getMethod());
+            long now = System.nanoTime();
+            sweepIdle(now);
+
+            Map<String, TokenBucket> buckets = read ? readBuckets : writeBuckets;
+            RateLimitProperties.Budget budget = read ? properties.getRead() : properties.getWrite();
+            TokenBucket bucket = buckets.computeIfAbsent(verified.getUserId(), id -> new TokenBucket(budget, now));
+
+            long waitNanos = bucket.tryConsume(now);
+            if (waitNanos == 0) {
+                return chain.filter(exchange);
+            }
+
+            (read ? throttledReads : throttledWrites).increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            return response.setComplete();
+        };
+    }
+
+    // чистку делает тот запрос, который первым выиграл CAS, остальные идут дальше без ожидания
+    private void sweepIdle(long now) {
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        long last = lastSweep.get();
+        if (now - last < idleNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        readBuckets.values().removeIf(bucket -> now - bucket.lastAccess() > idleNanos);
+        writeBuckets.values().removeIf(bucket -> now - bucket.lastAccess() > idleNanos);
+    }
+
+    public static class Config {
+    }
+}
@@ -0,0 +1,51 @@
+package com.storage.security;
+
+import com.storage.security.props.RateLimitProperties;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// состояние меняется только через CAS, поэтому параллельные запросы одного пользователя не блокируют друг друга
+class TokenBucket {
+    private final RateLimitProperties.Budget budget;
+    private final AtomicReference<State> state;
+
+    TokenBucket(RateLimitProperties.Budget budget, long nowNanos) {
+        this.budget = budget;
+        this.state = new AtomicReference<>(new State(budget.getCapacity(), nowNanos));
+    }
+
+    // 0, если токен взят, иначе через сколько наносекунд появится следующий
+    long tryConsume(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = refill(current, nowNanos);
+            if (tokens >= 1) {
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(nowNanos, current.updatedAt)))) {
+                    return 0;
+                }
+                continue;
+            }
+            return (long) Math.ceil((1 - tokens) / budget.getRefillPerSecond() * 1_000_000_000L);
+        }
+    }
+
+    long lastAccess() {
+        return state.get().updatedAt;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - current.updatedAt);
+        double refilled = current.tokens + elapsed / 1_000_000_000d * budget.getRefillPerSecond();
+        return Math.min(budget.getCapacity(), refilled);
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long updatedAt;
+
+        private State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
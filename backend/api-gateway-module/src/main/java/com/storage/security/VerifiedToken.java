@@ -0,0 +1,15 @@
+package com.storage.security;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class VerifiedToken {
+    private String userId;
+    private String roles;
+    private String mail;
+    private Instant expiresAt;
+}
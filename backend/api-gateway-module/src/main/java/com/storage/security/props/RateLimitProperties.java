@@ -0,0 +1,34 @@
+package com.storage.security.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Budget read = new Budget(200, 50);
+    private Budget write = new Budget(40, 10);
+    // бакет пользователя, который столько не присылал запросов, выкидывается из памяти
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    @Data
+    public static class Budget {
+        // сколько запросов можно сделать пачкой
+        private int capacity;
+        // сколько запросов в секунду восполняется
+        private double refillPerSecond;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
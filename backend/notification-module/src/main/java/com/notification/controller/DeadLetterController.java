@@ -0,0 +1,55 @@
+package com.notification.controller;
+
+import com.notification.exception.ForbiddenException;
+import com.notification.model.entity.DeadLetter;
+import com.notification.service.DeadLetterService;
+import com.storage.config.UserContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/notifications/admin/dead-letters")
+public class DeadLetterController {
+    private final DeadLetterService deadLetterService;
+    private final UserContext userContext;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetter>> getAll() {
+        checkAdmin();
+        return ResponseEntity.ok(deadLetterService.getAll());
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Integer>> replayAll() {
+        checkAdmin();
+        int replayed = deadLetterService.replayAll();
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<Void> replay(@PathVariable UUID id) {
+        checkAdmin();
+        deadLetterService.replay(id);
+        return new ResponseEntity<>(HttpStatus.valueOf(204));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable UUID id) {
+        checkAdmin();
+        deadLetterService.delete(id);
+        return new ResponseEntity<>(HttpStatus.valueOf(204));
+    }
+
+    private void checkAdmin() {
+        if (!userContext.hasRole("ADMIN")) {
+            throw new ForbiddenException("Admin role required");
+        }
+    }
+}
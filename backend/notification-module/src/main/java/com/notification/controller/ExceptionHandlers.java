@@ -1,5 +1,8 @@
 package com.notification.controller;
 
+import com.notification.exception.ForbiddenException;
+import com.notification.exception.NotFoundException;
+import com.notification.exception.NotValidException;
 import com.storage.model.error.ErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,4 +36,25 @@ public class ExceptionHandlers {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(500));
     }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleNotFound(final NotFoundException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(404));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleForbidden(final ForbiddenException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(403));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleNotValid(final NotValidException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(409));
+    }
 }
@@ -0,0 +1,28 @@
+package com.notification.controller;
+
+import com.notification.model.HistoryResolution;
+import com.notification.model.dto.FullnessPoint;
+import com.notification.service.FullnessHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/storages")
+public class FullnessHistoryController {
+    private final FullnessHistoryService historyService;
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<FullnessPoint>> getHistory(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) HistoryResolution resolution) {
+        return ResponseEntity.ok(historyService.getHistory(id, from, to, resolution));
+    }
+}
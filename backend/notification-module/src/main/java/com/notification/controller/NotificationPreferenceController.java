@@ -0,0 +1,26 @@
+package com.notification.controller;
+
+import com.notification.model.dto.NotificationPreferenceDto;
+import com.notification.model.entity.NotificationPreference;
+import com.notification.service.NotificationPreferenceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/notifications/preferences")
+public class NotificationPreferenceController {
+    private final NotificationPreferenceService preferenceService;
+
+    @GetMapping
+    public ResponseEntity<NotificationPreference> get() {
+        return ResponseEntity.ok(preferenceService.getCurrent());
+    }
+
+    @PutMapping
+    public ResponseEntity<NotificationPreference> update(@Valid @RequestBody NotificationPreferenceDto dto) {
+        return ResponseEntity.ok(preferenceService.update(dto));
+    }
+}
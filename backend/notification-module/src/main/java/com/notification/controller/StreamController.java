@@ -0,0 +1,29 @@
+package com.notification.controller;
+
+import com.notification.service.StreamService;
+import com.storage.config.UserContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/notifications/stream")
+public class StreamController {
+    private final StreamService streamService;
+    private final UserContext userContext;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(value = "storage_id", required = false) List<UUID> storageIds) {
+        UUID currentUserId = userContext.getCurrentUserId();
+        return streamService.subscribe(currentUserId, storageIds != null ? new HashSet<>(storageIds) : new HashSet<>());
+    }
+}
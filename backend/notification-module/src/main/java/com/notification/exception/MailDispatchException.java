@@ -0,0 +1,7 @@
+package com.notification.exception;
+
+public class MailDispatchException extends RuntimeException {
+    public MailDispatchException(String message) {
+        super(message);
+    }
+}
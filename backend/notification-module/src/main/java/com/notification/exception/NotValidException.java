@@ -0,0 +1,7 @@
+package com.notification.exception;
+
+public class NotValidException extends RuntimeException {
+    public NotValidException(String message) {
+        super(message);
+    }
+}
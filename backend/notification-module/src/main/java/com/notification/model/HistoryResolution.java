@@ -0,0 +1,20 @@
+package com.notification.model;
+
+import java.time.temporal.ChronoUnit;
+
+public enum HistoryResolution {
+    RAW(null),
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit bucket;
+
+    HistoryResolution(ChronoUnit bucket) {
+        this.bucket = bucket;
+    }
+
+    public ChronoUnit getBucket() {
+        return bucket;
+    }
+}
@@ -1,5 +1,7 @@
 package com.notification.model;
 
 public enum NotificationCondition {
-    ABOVE, BELOW
+    ABOVE, BELOW,
+    // порог задаётся в часах до полного заполнения по прогнозу
+    FULL_WITHIN_HOURS
 }
@@ -0,0 +1,18 @@
+package com.notification.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class FullnessPoint {
+    private Instant timestamp;
+    private double avg;
+    private double min;
+    private double max;
+    private long samples;
+}
@@ -0,0 +1,10 @@
+package com.notification.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class NotificationPreferenceDto {
+    @NotNull(message = "Digest flag cannot be null")
+    private Boolean digest;
+}
@@ -1,5 +1,6 @@
 package com.notification.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.notification.model.NotificationCondition;
 import jakarta.validation.constraints.*;
@@ -9,6 +10,9 @@ import java.util.UUID;
 
 @Data
 public class NotificationRuleCreateDto {
+    // дальше месяца прогноз по сглаженной скорости заполнения уже ничего не значит
+    public static final int MAX_FORECAST_HOURS = 720;
+
     @NotBlank
     @Pattern(regexp = "^[a-zA-Z0-9\\sа-яА-ЯёЁ]+$", message = "Only letters, numbers and spaces allowed")
     private String name;
@@ -21,11 +25,28 @@ public class NotificationRuleCreateDto {
     @JsonProperty("storage_id")
     private UUID storageId;
 
+    // для ABOVE/BELOW - проценты заполненности, для FULL_WITHIN_HOURS - часы до заполнения по прогнозу
     @NotNull
-    @Max(value = 100, message = "Threshold cannot exceed 100%")
-    @Min(value = 0, message = "Threshold cannot be below 0%")
     private Integer thresholdValue;
 
     @NotNull(message = "Condition cannot be null")
     private NotificationCondition condition;
+
+    @JsonIgnore
+    @AssertTrue(message = "Threshold must be between 0 and 100% for ABOVE and BELOW")
+    public boolean isPercentThresholdValid() {
+        if (thresholdValue == null || condition == null || condition == NotificationCondition.FULL_WITHIN_HOURS) {
+            return true;
+        }
+        return thresholdValue >= 0 && thresholdValue <= 100;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Threshold must be between 1 and " + MAX_FORECAST_HOURS + " hours for FULL_WITHIN_HOURS")
+    public boolean isHoursThresholdValid() {
+        if (thresholdValue == null || condition != NotificationCondition.FULL_WITHIN_HOURS) {
+            return true;
+        }
+        return thresholdValue >= 1 && thresholdValue <= MAX_FORECAST_HOURS;
+    }
 }
\ No newline at end of file
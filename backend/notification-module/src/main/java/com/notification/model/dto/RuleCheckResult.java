@@ -0,0 +1,15 @@
+package com.notification.model.dto;
+
+import com.notification.model.entity.NotificationRuleState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RuleCheckResult {
+    private List<String> messages;
+    // сработавшие правила; сохраняются только после успешной отправки сообщений
+    private List<NotificationRuleState> fired;
+}
@@ -0,0 +1,23 @@
+package com.notification.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class StorageUpdateEvent {
+    @JsonProperty("storage_id")
+    private UUID storageId;
+
+    @JsonProperty("storage_name")
+    private String storageName;
+
+    private Double fullness;
+
+    private Double capacity;
+}
@@ -0,0 +1,41 @@
+package com.notification.model.entity;
+
+import com.storage.model.notification.StorageData;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_dead_letter")
+public class DeadLetter {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "storage_id")
+    private UUID storageId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private StorageData payload;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "failed_at", updatable = false, nullable = false)
+    private Timestamp failedAt;
+}
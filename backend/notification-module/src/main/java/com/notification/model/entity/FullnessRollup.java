@@ -0,0 +1,32 @@
+package com.notification.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "fullness_rollup")
+public class FullnessRollup {
+
+    @EmbeddedId
+    private FullnessRollupId id;
+
+    @Column(nullable = false)
+    private long samples;
+
+    // сумма процентов за бакет, среднее = total / samples
+    @Column(nullable = false)
+    private double total;
+
+    @Column(name = "min_value", nullable = false)
+    private double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private double maxValue;
+}
@@ -0,0 +1,31 @@
+package com.notification.model.entity;
+
+import com.notification.model.HistoryResolution;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class FullnessRollupId implements Serializable {
+
+    @Column(name = "storage_id", nullable = false)
+    private UUID storageId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HistoryResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Timestamp bucketStart;
+}
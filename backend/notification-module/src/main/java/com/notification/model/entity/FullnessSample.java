@@ -0,0 +1,33 @@
+package com.notification.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "fullness_sample", indexes = @Index(columnList = "storage_id, recorded_at"))
+public class FullnessSample {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "storage_id", nullable = false)
+    private UUID storageId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Timestamp recordedAt;
+
+    // в процентах
+    @Column(nullable = false)
+    private double percentage;
+}
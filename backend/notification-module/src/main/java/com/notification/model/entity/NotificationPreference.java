@@ -0,0 +1,32 @@
+package com.notification.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_preference")
+public class NotificationPreference {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // вместо отдельного письма на каждый алерт — одно сводное письмо за интервал
+    @Column(nullable = false)
+    private boolean digest;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Timestamp updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.notification.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_rule_state")
+public class NotificationRuleState {
+
+    @Id
+    @Column(name = "rule_id")
+    private UUID ruleId;
+
+    // true, пока порог пересечён и правило не перевзведено
+    @Column(nullable = false)
+    private boolean fired;
+
+    @Column(name = "last_fired_at")
+    private Timestamp lastFiredAt;
+}
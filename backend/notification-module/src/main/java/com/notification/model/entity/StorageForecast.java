@@ -0,0 +1,39 @@
+package com.notification.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "storage_forecast")
+public class StorageForecast {
+
+    @Id
+    @Column(name = "storage_id")
+    private UUID storageId;
+
+    @Column(nullable = false)
+    private double fullness;
+
+    @Column(nullable = false)
+    private double capacity;
+
+    // EWMA скорости заполнения, единиц хранилища в час
+    @Column(name = "fill_rate", nullable = false)
+    private double fillRate;
+
+    @Column(name = "sampled_at", nullable = false)
+    private Timestamp sampledAt;
+
+    @Column(name = "estimated_full_at")
+    private Timestamp estimatedFullAt;
+}
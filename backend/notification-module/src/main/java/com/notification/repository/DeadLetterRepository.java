@@ -0,0 +1,9 @@
+package com.notification.repository;
+
+import com.notification.model.entity.DeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface DeadLetterRepository extends JpaRepository<DeadLetter, UUID> {
+}
@@ -0,0 +1,44 @@
+package com.notification.repository;
+
+import com.notification.model.HistoryResolution;
+import com.notification.model.entity.FullnessRollup;
+import com.notification.model.entity.FullnessRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+public interface FullnessRollupRepository extends JpaRepository<FullnessRollup, FullnessRollupId> {
+
+    @Modifying
+    @Query(value = """
+            insert into fullness_rollup (storage_id, resolution, bucket_start, samples, total, min_value, max_value)
+            values (:storageId, :resolution, :bucketStart, 1, :value, :value, :value)
+            on conflict (storage_id, resolution, bucket_start) do update set
+                samples = fullness_rollup.samples + 1,
+                total = fullness_rollup.total + excluded.total,
+                min_value = least(fullness_rollup.min_value, excluded.min_value),
+                max_value = greatest(fullness_rollup.max_value, excluded.max_value)
+            """, nativeQuery = true)
+    void upsert(@Param("storageId") UUID storageId,
+                @Param("resolution") String resolution,
+                @Param("bucketStart") Timestamp bucketStart,
+                @Param("value") double value);
+
+    @Query("select r from FullnessRollup r where r.id.storageId = :storageId and r.id.resolution = :resolution " +
+            "and r.id.bucketStart between :from and :to order by r.id.bucketStart")
+    List<FullnessRollup> findRange(@Param("storageId") UUID storageId,
+                                   @Param("resolution") HistoryResolution resolution,
+                                   @Param("from") Timestamp from,
+                                   @Param("to") Timestamp to);
+
+    @Transactional
+    @Modifying
+    @Query("delete from FullnessRollup r where r.id.resolution = :resolution and r.id.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") HistoryResolution resolution, @Param("before") Timestamp before);
+}
@@ -0,0 +1,21 @@
+package com.notification.repository;
+
+import com.notification.model.entity.FullnessSample;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+public interface FullnessSampleRepository extends JpaRepository<FullnessSample, UUID> {
+    List<FullnessSample> findByStorageIdAndRecordedAtBetweenOrderByRecordedAt(UUID storageId, Timestamp from, Timestamp to);
+
+    @Transactional
+    @Modifying
+    @Query("delete from FullnessSample s where s.recordedAt < :before")
+    int deleteOlderThan(@Param("before") Timestamp before);
+}
@@ -0,0 +1,9 @@
+package com.notification.repository;
+
+import com.notification.model.entity.StorageForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface StorageForecastRepository extends JpaRepository<StorageForecast, UUID> {
+}
@@ -0,0 +1,19 @@
+package com.notification.service;
+
+import com.notification.model.entity.DeadLetter;
+import com.storage.model.notification.StorageData;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DeadLetterService {
+    void park(StorageData event, String error);
+
+    List<DeadLetter> getAll();
+
+    int replayAll();
+
+    void replay(UUID id);
+
+    void delete(UUID id);
+}
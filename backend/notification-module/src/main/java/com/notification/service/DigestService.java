@@ -0,0 +1,7 @@
+package com.notification.service;
+
+public interface DigestService {
+    void append(String recipient, String message);
+
+    void flush();
+}
@@ -0,0 +1,16 @@
+package com.notification.service;
+
+import com.notification.model.entity.StorageForecast;
+import com.storage.model.notification.StorageData;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ForecastService {
+    StorageForecast update(StorageData data, Instant sampledAt);
+
+    Optional<StorageForecast> get(UUID storageId);
+
+    Double hoursToFull(StorageForecast forecast);
+}
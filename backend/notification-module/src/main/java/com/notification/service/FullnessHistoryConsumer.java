@@ -0,0 +1,23 @@
+package com.notification.service;
+
+import com.storage.model.notification.StorageData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class FullnessHistoryConsumer {
+
+    private final FullnessHistoryService historyService;
+
+    // отдельная группа: история пишется независимо от ретраев алертов
+    @KafkaListener(topics = "storage-notification", groupId = "notification-history")
+    public void onMessage(StorageData event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        historyService.record(event, Instant.ofEpochMilli(timestamp));
+    }
+}
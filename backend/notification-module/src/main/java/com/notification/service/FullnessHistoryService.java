@@ -0,0 +1,17 @@
+package com.notification.service;
+
+import com.notification.model.HistoryResolution;
+import com.notification.model.dto.FullnessPoint;
+import com.storage.model.notification.StorageData;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface FullnessHistoryService {
+    void record(StorageData data, Instant recordedAt);
+
+    List<FullnessPoint> getHistory(UUID storageId, Instant from, Instant to, HistoryResolution resolution);
+
+    void cleanup();
+}
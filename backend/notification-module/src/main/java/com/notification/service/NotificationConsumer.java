@@ -1,12 +1,25 @@
 package com.notification.service;
 
+import com.notification.model.dto.RuleCheckResult;
 import com.storage.model.notification.StorageData;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 @Service
@@ -15,16 +28,55 @@ public class NotificationConsumer {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final NotificationService notificationService;
+    private final ForecastService forecastService;
     private final EmailService emailService;
+    private final DigestService digestService;
+    private final NotificationPreferenceService preferenceService;
+    private final DeadLetterService deadLetterService;
 
+    // упавшие события уходят в retry-топики с растущей задержкой, основной топик при этом не блокируется
+    @RetryableTopic(
+            attempts = "${notification.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${notification.retry.delay:1000}",
+                    multiplierExpression = "${notification.retry.multiplier:5}",
+                    maxDelayExpression = "${notification.retry.max-delay:60000}"),
+            retryTopicSuffix = "-retry",
+            dltTopicSuffix = "-dlt",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            autoCreateTopics = "false")
     @KafkaListener(topics = "storage-notification", groupId = "notification-module")
-    public void onMessage(StorageData event) {
-        List<String> messages = notificationService.checkRule(event);
+    public void onMessage(StorageData event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        // прогноз обновляется до проверки правил, чтобы FULL_WITHIN_HOURS видел свежую оценку
+        forecastService.update(event, Instant.ofEpochMilli(timestamp));
 
-        for (String msg : messages) {
-            kafkaTemplate.send("user-notification", msg);
+        RuleCheckResult result = notificationService.checkRule(event);
+        if (result.getMessages().isEmpty()) return;
+
+        boolean digest = preferenceService.isDigest(event.getUserId());
+        // ключ — id пользователя, по нему StreamConsumer находит SSE-подписчиков
+        String userKey = event.getUserId() != null ? event.getUserId().toString() : null;
+        List<CompletableFuture<?>> sent = new ArrayList<>();
+        for (String msg : result.getMessages()) {
+            sent.add(kafkaTemplate.send("user-notification", userKey, msg));
             String email = event.getUserEmail();
-            emailService.sendEmail(email, "Storage Alert", msg);
+            if (digest) {
+                digestService.append(email, msg);
+            } else {
+                emailService.sendEmail(email, "Storage Alert", msg);
+            }
         }
+        // правило считается сработавшим только после отправки: упавшая доставка уйдёт в retry-топик
+        // и будет повторена целиком (возможен дубль письма, но не потеря алерта)
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).join();
+        notificationService.markFired(result.getFired());
+    }
+
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, StorageData> record) {
+        String error = Optional.ofNullable(record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE))
+                .map(header -> new String(header.value(), StandardCharsets.UTF_8))
+                .orElse(null);
+        deadLetterService.park(record.value(), error);
     }
 }
@@ -0,0 +1,14 @@
+package com.notification.service;
+
+import com.notification.model.dto.NotificationPreferenceDto;
+import com.notification.model.entity.NotificationPreference;
+
+import java.util.UUID;
+
+public interface NotificationPreferenceService {
+    NotificationPreference getCurrent();
+
+    NotificationPreference update(NotificationPreferenceDto dto);
+
+    boolean isDigest(UUID userId);
+}
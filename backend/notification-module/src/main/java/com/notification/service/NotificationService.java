@@ -1,7 +1,9 @@
 package com.notification.service;
 
 import com.notification.model.dto.NotificationRuleCreateDto;
+import com.notification.model.dto.RuleCheckResult;
 import com.notification.model.entity.NotificationRule;
+import com.notification.model.entity.NotificationRuleState;
 import com.storage.model.notification.StorageData;
 
 import java.util.List;
@@ -14,5 +16,7 @@ public interface NotificationService {
 
     void delete(UUID id);
 
-    List<String> checkRule(StorageData data);
+    RuleCheckResult checkRule(StorageData data);
+
+    void markFired(List<NotificationRuleState> states);
 }
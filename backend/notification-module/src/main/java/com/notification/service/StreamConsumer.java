@@ -0,0 +1,33 @@
+package com.notification.service;
+
+import com.storage.model.notification.StorageData;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class StreamConsumer {
+
+    private final StreamService streamService;
+
+    // каждый инстанс видит все события и раздаёт их своим SSE-подписчикам, поэтому партиции назначаются
+    // вручную и без группы: в брокере ничего не регистрируется, офсеты не коммитятся, чтение идёт с конца
+    @KafkaListener(
+            topicPartitions = {
+                    @TopicPartition(topic = "storage-notification", partitions = "0"),
+                    @TopicPartition(topic = "user-notification", partitions = "0")
+            },
+            properties = "auto.offset.reset=latest")
+    public void onMessage(ConsumerRecord<String, Object> record) {
+        if (record.value() instanceof StorageData data) {
+            streamService.publishStorage(data);
+        } else if (record.key() != null && record.value() instanceof String message) {
+            streamService.publishAlert(UUID.fromString(record.key()), message);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.notification.service;
+
+import com.storage.model.notification.StorageData;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface StreamService {
+    SseEmitter subscribe(UUID userId, Set<UUID> storageIds);
+
+    void publishStorage(StorageData data);
+
+    void publishAlert(UUID userId, String message);
+}
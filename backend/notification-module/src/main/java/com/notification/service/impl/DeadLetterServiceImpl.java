@@ -0,0 +1,68 @@
+package com.notification.service.impl;
+
+import com.notification.exception.NotFoundException;
+import com.notification.model.entity.DeadLetter;
+import com.notification.repository.DeadLetterRepository;
+import com.notification.service.DeadLetterService;
+import com.storage.model.notification.StorageData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterServiceImpl implements DeadLetterService {
+    private final DeadLetterRepository deadLetterRepository;
+    private final KafkaTemplate<String, StorageData> kafkaTemplate;
+
+    @Override
+    public void park(StorageData event, String error) {
+        log.warn("Notification for storage {} moved to DLT: {}", event.getStorageId(), error);
+
+        DeadLetter deadLetter = DeadLetter.builder()
+                .storageId(event.getStorageId())
+                .payload(event)
+                .error(error)
+                .build();
+
+        deadLetterRepository.save(deadLetter);
+    }
+
+    @Override
+    public List<DeadLetter> getAll() {
+        return deadLetterRepository.findAll();
+    }
+
+    @Override
+    public int replayAll() {
+        List<DeadLetter> deadLetters = deadLetterRepository.findAll();
+        deadLetters.forEach(this::resend);
+        return deadLetters.size();
+    }
+
+    @Override
+    public void replay(UUID id) {
+        DeadLetter deadLetter = deadLetterRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Dead letter not found: " + id));
+        resend(deadLetter);
+    }
+
+    @Override
+    public void delete(UUID id) {
+        deadLetterRepository.deleteById(id);
+    }
+
+    // удаляем запись только после подтверждения от брокера, чтобы не потерять событие
+    private void resend(DeadLetter deadLetter) {
+        StorageData event = deadLetter.getPayload();
+        String key = event.getStorageId() != null ? event.getStorageId().toString() : null;
+
+        kafkaTemplate.send("storage-notification", key, event).join();
+        deadLetterRepository.delete(deadLetter);
+    }
+}
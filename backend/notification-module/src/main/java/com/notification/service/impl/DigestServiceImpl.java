@@ -0,0 +1,77 @@
+package com.notification.service.impl;
+
+import com.notification.service.DigestService;
+import com.notification.service.EmailService;
+import com.notification.service.props.DigestProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DigestServiceImpl implements DigestService {
+    private final EmailService emailService;
+    private final DigestProperties properties;
+
+    private final ConcurrentHashMap<String, Digest> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void append(String recipient, String message) {
+        // compute атомарен по ключу, поэтому flush не может забрать дайджест посреди добавления
+        pending.compute(recipient, (r, digest) -> {
+            if (digest == null) {
+                digest = new Digest();
+            }
+            digest.add(message, properties.getMaxPerRecipient());
+            return digest;
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notification.digest.interval:PT15M}")
+    public void flush() {
+        for (String recipient : pending.keySet()) {
+            Digest digest = pending.remove(recipient);
+            if (digest == null || digest.messages.isEmpty()) continue;
+
+            StringBuilder text = new StringBuilder(String.join("\n", digest.messages));
+            if (digest.dropped > 0) {
+                text.append("\n... and ").append(digest.dropped).append(" more");
+            }
+
+            try {
+                emailService.sendEmail(recipient,
+                        "Storage Alerts Digest (" + (digest.messages.size() + digest.dropped) + ")",
+                        text.toString());
+            } catch (RuntimeException e) {
+                log.warn("Failed to send digest to {}, will retry next interval: {}", recipient, e.getMessage());
+                digest.messages.forEach(message -> append(recipient, message));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static class Digest {
+        private final List<String> messages = new ArrayList<>();
+        private int dropped;
+
+        private void add(String message, int limit) {
+            if (messages.size() < limit) {
+                messages.add(message);
+            } else {
+                dropped++;
+            }
+        }
+    }
+}
@@ -1,20 +1,99 @@
 package com.notification.service.impl;
 
+import com.notification.exception.MailDispatchException;
 import com.notification.service.EmailService;
+import com.notification.service.props.MailDispatchProperties;
+import com.notification.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
+    private static final int MAX_TRACKED_RECIPIENTS = 10_000;
+
     private final JavaMailSender mailSender;
+    private final MailDispatchProperties properties;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
+    private final Map<String, TokenBucket> recipientLimits = new ConcurrentHashMap<>();
+    // письма, ждущие повторной отправки; ограничены той же ёмкостью, что и очередь
+    private final AtomicInteger delayed = new AtomicInteger();
+    private BlockingQueue<Pending> queue;
+    private TokenBucket globalLimit;
+    private ExecutorService workers;
+    private ScheduledExecutorService retries;
+    private volatile boolean running;
+
+    private Counter deferredByLimit;
+    private Counter retriedAfterError;
+    private Counter droppedOverflow;
+    private Counter droppedFailed;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        globalLimit = new TokenBucket(properties.getBurst(), properties.getRatePerSecond());
+        running = true;
+
+        deferredByLimit = counter("notification.mail.retried", "reason", "rate_limit");
+        retriedAfterError = counter("notification.mail.retried", "reason", "error");
+        droppedOverflow = counter("notification.mail.dropped", "reason", "overflow");
+        droppedFailed = counter("notification.mail.dropped", "reason", "failed");
+
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::dispatchLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        retries.shutdownNow();
+        if (delayed.get() > 0) {
+            log.warn("Mail dispatch stopped with {} message(s) waiting for retry", delayed.get());
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getEnqueueTimeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            log.warn("Mail dispatch stopped with {} message(s) left in queue", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
     @Override
     public void sendEmail(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
@@ -22,6 +101,132 @@ public class EmailServiceImpl implements EmailService {
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-        mailSender.send(message);
+
+        // блокируем listener, пока очередь полна: так медленный SMTP тормозит чтение, а не роняет письма
+        try {
+            if (!queue.offer(new Pending(message, 1), properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailDispatchException("Mail queue is full, can't send message to " + to);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailDispatchException("Interrupted while queueing message to " + to);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Mail dispatch failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<Pending> batch) throws InterruptedException {
+        List<Pending> allowed = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            String recipient = pending.message.getTo()[0];
+            // лимит получателя не повод терять письмо: откладываем его до появления токена
+            long waitNanos = recipientLimit(recipient).reserve();
+            if (waitNanos > 0) {
+                deferredByLimit.increment();
+                schedule(pending, waitNanos);
+                continue;
+            }
+            globalLimit.acquire();
+            allowed.add(pending);
+        }
+        if (allowed.isEmpty()) return;
+
+        SimpleMailMessage[] messages = allowed.stream().map(pending -> pending.message).toArray(SimpleMailMessage[]::new);
+        try {
+            // JavaMailSender отправляет весь массив в рамках одного SMTP-соединения
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            // ключи failedMessages - исходные SimpleMailMessage; при обрыве соединения туда попадают все неотправленные
+            Set<Object> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            failed.addAll(e.getFailedMessages().keySet());
+            log.error("Failed to send {} of {} message(s): {}",
+                    failed.isEmpty() ? allowed.size() : failed.size(), allowed.size(), e.getMessage());
+            for (Pending pending : allowed) {
+                if (failed.isEmpty() || failed.contains(pending.message)) {
+                    retry(pending);
+                }
+            }
+        } catch (MailException e) {
+            log.error("Failed to send {} message(s): {}", allowed.size(), e.getMessage());
+            allowed.forEach(this::retry);
+        }
+    }
+
+    private void retry(Pending pending) {
+        if (pending.attempt >= properties.getMaxAttempts()) {
+            droppedFailed.increment();
+            log.error("Giving up on message to {} after {} attempt(s)", pending.message.getTo()[0], pending.attempt);
+            return;
+        }
+        double delay = properties.getRetryDelay().toNanos() * Math.pow(properties.getRetryMultiplier(), pending.attempt - 1);
+        long delayNanos = (long) Math.min(delay, properties.getMaxRetryDelay().toNanos());
+        retriedAfterError.increment();
+        schedule(new Pending(pending.message, pending.attempt + 1), delayNanos);
+    }
+
+    private void schedule(Pending pending, long delayNanos) {
+        if (delayed.incrementAndGet() > properties.getQueueCapacity()) {
+            delayed.decrementAndGet();
+            dropOverflow(pending);
+            return;
+        }
+        try {
+            retries.schedule(() -> {
+                delayed.decrementAndGet();
+                if (!queue.offer(pending)) {
+                    dropOverflow(pending);
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // сервис останавливается
+            delayed.decrementAndGet();
+            dropOverflow(pending);
+        }
+    }
+
+    private void dropOverflow(Pending pending) {
+        droppedOverflow.increment();
+        log.warn("Mail backlog is full, message to {} dropped", pending.message.getTo()[0]);
+    }
+
+    private TokenBucket recipientLimit(String recipient) {
+        if (recipientLimits.size() > MAX_TRACKED_RECIPIENTS) {
+            recipientLimits.values().removeIf(TokenBucket::isFull);
+        }
+        return recipientLimits.computeIfAbsent(recipient,
+                r -> new TokenBucket(properties.getRecipientBurst(), properties.getRecipientPerMinute() / 60));
+    }
+
+    private Counter counter(String name, String tag, String value) {
+        return Counter.builder(name).tag(tag, value).register(meterRegistry);
+    }
+
+    private static class Pending {
+        private final SimpleMailMessage message;
+        private final int attempt;
+
+        private Pending(SimpleMailMessage message, int attempt) {
+            this.message = message;
+            this.attempt = attempt;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package com.notification.service.impl;
+
+import com.notification.model.entity.StorageForecast;
+import com.notification.repository.StorageForecastRepository;
+import com.notification.service.ForecastService;
+import com.notification.service.props.ForecastProperties;
+import com.storage.model.notification.StorageData;
+import com.storage.model.notification.StorageForecastData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ForecastServiceImpl implements ForecastService {
+    private static final double MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+    private static final double MIN_FILL_RATE = 1e-9;
+
+    private final StorageForecastRepository forecastRepository;
+    private final ForecastProperties properties;
+    private final KafkaTemplate<String, StorageForecastData> kafkaTemplate;
+
+    @Override
+    public StorageForecast update(StorageData data, Instant sampledAt) {
+        StorageForecast forecast = forecastRepository.findById(data.getStorageId()).orElse(null);
+
+        if (forecast == null) {
+            forecast = StorageForecast.builder()
+                    .storageId(data.getStorageId())
+                    .fillRate(0)
+                    .build();
+        } else {
+            // повторно доставленные или запоздавшие события не двигают прогноз назад
+            if (!sampledAt.isAfter(forecast.getSampledAt().toInstant())) {
+                return forecast;
+            }
+
+            double dtHours = Duration.between(forecast.getSampledAt().toInstant(), sampledAt).toMillis() / MILLIS_PER_HOUR;
+            double rate = (data.getFullness() - forecast.getFullness()) / dtHours;
+            // alpha зависит от интервала между событиями, поэтому частые мелкие изменения не раскачивают оценку
+            double alpha = 1 - Math.exp(-dtHours / (properties.getSmoothing().toMillis() / MILLIS_PER_HOUR));
+            forecast.setFillRate(alpha * rate + (1 - alpha) * forecast.getFillRate());
+        }
+
+        forecast.setFullness(data.getFullness());
+        forecast.setCapacity(data.getCapacity());
+        forecast.setSampledAt(Timestamp.from(sampledAt));
+
+        Double hours = hoursToFull(forecast);
+        forecast.setEstimatedFullAt(hours != null
+                ? Timestamp.from(sampledAt.plusMillis((long) (hours * MILLIS_PER_HOUR)))
+                : null);
+
+        StorageForecast saved = forecastRepository.save(forecast);
+        publish(saved);
+        return saved;
+    }
+
+    @Override
+    public Optional<StorageForecast> get(UUID storageId) {
+        return forecastRepository.findById(storageId);
+    }
+
+    @Override
+    public Double hoursToFull(StorageForecast forecast) {
+        double free = forecast.getCapacity() - forecast.getFullness();
+        if (free <= 0) {
+            return 0.0;
+        }
+        if (forecast.getFillRate() <= MIN_FILL_RATE) {
+            return null;
+        }
+        return free / forecast.getFillRate();
+    }
+
+    private void publish(StorageForecast forecast) {
+        StorageForecastData event = StorageForecastData.builder()
+                .storageId(forecast.getStorageId())
+                .fillRatePerHour(forecast.getFillRate())
+                .estimatedFullAt(forecast.getEstimatedFullAt() != null ? forecast.getEstimatedFullAt().toInstant() : null)
+                .build();
+
+        try {
+            kafkaTemplate.send("storage-forecast", forecast.getStorageId().toString(), event);
+        } catch (RuntimeException e) {
+            log.warn("Kafka send error: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.notification.service.impl;
+
+import com.notification.exception.NotValidException;
+import com.notification.model.HistoryResolution;
+import com.notification.model.dto.FullnessPoint;
+import com.notification.model.entity.FullnessRollup;
+import com.notification.model.entity.FullnessSample;
+import com.notification.repository.FullnessRollupRepository;
+import com.notification.repository.FullnessSampleRepository;
+import com.notification.service.FullnessHistoryService;
+import com.notification.service.props.HistoryProperties;
+import com.storage.model.notification.StorageData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FullnessHistoryServiceImpl implements FullnessHistoryService {
+    private static final List<HistoryResolution> ROLLUPS =
+            List.of(HistoryResolution.MINUTE, HistoryResolution.HOUR, HistoryResolution.DAY);
+
+    private final FullnessSampleRepository sampleRepository;
+    private final FullnessRollupRepository rollupRepository;
+    private final HistoryProperties properties;
+
+    @Override
+    @Transactional
+    public void record(StorageData data, Instant recordedAt) {
+        if (data.getCapacity() == null || data.getCapacity() <= 0) return;
+
+        double percentage = (data.getFullness() / data.getCapacity()) * 100;
+
+        sampleRepository.save(FullnessSample.builder()
+                .storageId(data.getStorageId())
+                .recordedAt(Timestamp.from(recordedAt))
+                .percentage(percentage)
+                .build());
+
+        // каждый роллап обновляется инкрементально одним upsert, без пересчёта по сырым точкам
+        for (HistoryResolution resolution : ROLLUPS) {
+            rollupRepository.upsert(data.getStorageId(), resolution.name(),
+                    Timestamp.from(recordedAt.truncatedTo(resolution.getBucket())), percentage);
+        }
+    }
+
+    @Override
+    public List<FullnessPoint> getHistory(UUID storageId, Instant from, Instant to, HistoryResolution resolution) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        if (!start.isBefore(end)) {
+            throw new NotValidException("'from' must be before 'to'");
+        }
+
+        Duration span = Duration.between(start, end);
+        HistoryResolution tier = resolution != null ? resolution : pickResolution(span);
+
+        if (tier == HistoryResolution.RAW) {
+            if (span.compareTo(properties.getRawMaxSpan()) > 0) {
+                throw new NotValidException("RAW resolution is limited to " + properties.getRawMaxSpan());
+            }
+            return sampleRepository.findByStorageIdAndRecordedAtBetweenOrderByRecordedAt(
+                            storageId, Timestamp.from(start), Timestamp.from(end)).stream()
+                    .map(sample -> FullnessPoint.builder()
+                            .timestamp(sample.getRecordedAt().toInstant())
+                            .avg(sample.getPercentage())
+                            .min(sample.getPercentage())
+                            .max(sample.getPercentage())
+                            .samples(1)
+                            .build())
+                    .toList();
+        }
+
+        return rollupRepository.findRange(storageId, tier,
+                        Timestamp.from(start.truncatedTo(tier.getBucket())), Timestamp.from(end)).stream()
+                .map(this::toPoint)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${notification.history.cleanup-interval:PT1H}")
+    public void cleanup() {
+        Instant now = Instant.now();
+        int raw = sampleRepository.deleteOlderThan(Timestamp.from(now.minus(properties.getRawRetention())));
+        int minutes = rollupRepository.deleteOlderThan(HistoryResolution.MINUTE,
+                Timestamp.from(now.minus(properties.getMinuteRetention())));
+        int hours = rollupRepository.deleteOlderThan(HistoryResolution.HOUR,
+                Timestamp.from(now.minus(properties.getHourRetention())));
+        log.debug("Fullness history cleanup: {} samples, {} minute and {} hour buckets removed", raw, minutes, hours);
+    }
+
+    private HistoryResolution pickResolution(Duration span) {
+        if (span.compareTo(Duration.ofHours(6)) <= 0) return HistoryResolution.MINUTE;
+        if (span.compareTo(Duration.ofDays(14)) <= 0) return HistoryResolution.HOUR;
+        return HistoryResolution.DAY;
+    }
+
+    private FullnessPoint toPoint(FullnessRollup rollup) {
+        return FullnessPoint.builder()
+                .timestamp(rollup.getId().getBucketStart().toInstant())
+                .avg(rollup.getTotal() / rollup.getSamples())
+                .min(rollup.getMinValue())
+                .max(rollup.getMaxValue())
+                .samples(rollup.getSamples())
+                .build();
+    }
+}
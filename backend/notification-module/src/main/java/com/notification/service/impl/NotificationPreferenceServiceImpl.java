@@ -0,0 +1,88 @@
+package com.notification.service.impl;
+
+import com.notification.model.dto.NotificationPreferenceDto;
+import com.notification.model.entity.NotificationPreference;
+import com.notification.repository.NotificationPreferenceRepository;
+import com.notification.service.NotificationPreferenceService;
+import com.notification.service.props.DigestProperties;
+import com.storage.config.UserContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationPreferenceServiceImpl implements NotificationPreferenceService {
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final UserContext userContext;
+    private final DigestProperties properties;
+
+    // listener спрашивает настройку на каждое событие, поэтому держим её в памяти ограниченное время:
+    // изменение, сохранённое другим экземпляром, подхватится после истечения TTL
+    private final LinkedHashMap<UUID, CachedPreference> digestByUser = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public NotificationPreference getCurrent() {
+        UUID currentUserId = userContext.getCurrentUserId();
+        return preferenceRepository.findById(currentUserId)
+                .orElseGet(() -> NotificationPreference.builder()
+                        .userId(currentUserId)
+                        .digest(false)
+                        .build());
+    }
+
+    @Override
+    public NotificationPreference update(NotificationPreferenceDto dto) {
+        NotificationPreference preference = getCurrent();
+        preference.setDigest(dto.getDigest());
+
+        NotificationPreference saved = preferenceRepository.save(preference);
+        cache(saved.getUserId(), saved.isDigest());
+        return saved;
+    }
+
+    @Override
+    public boolean isDigest(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        synchronized (digestByUser) {
+            CachedPreference cached = digestByUser.get(userId);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                return cached.digest;
+            }
+        }
+
+        // запрос в базу идёт без блокировки: два одновременных промаха просто прочитают одно и то же
+        boolean digest = preferenceRepository.findById(userId)
+                .map(NotificationPreference::isDigest)
+                .orElse(false);
+        cache(userId, digest);
+        return digest;
+    }
+
+    private void cache(UUID userId, boolean digest) {
+        long expiresAt = System.currentTimeMillis() + properties.getPreferenceCacheTtl().toMillis();
+        synchronized (digestByUser) {
+            digestByUser.put(userId, new CachedPreference(digest, expiresAt));
+            Iterator<UUID> eldest = digestByUser.keySet().iterator();
+            while (digestByUser.size() > properties.getPreferenceCacheSize() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static class CachedPreference {
+        private final boolean digest;
+        private final long expiresAt;
+
+        private CachedPreference(boolean digest, long expiresAt) {
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
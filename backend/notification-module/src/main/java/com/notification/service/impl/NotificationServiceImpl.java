@@ -2,22 +2,36 @@ package com.notification.service.impl;
 
 import com.notification.model.NotificationCondition;
 import com.notification.model.dto.NotificationRuleCreateDto;
+import com.notification.model.dto.RuleCheckResult;
 import com.notification.model.entity.NotificationRule;
+import com.notification.model.entity.NotificationRuleState;
+import com.notification.repository.NotificationRuleStateRepository;
+import com.notification.service.ForecastService;
 import com.notification.service.NotificationService;
+import com.notification.service.props.AlertProperties;
 import com.storage.config.UserContext;
 import com.storage.model.notification.StorageData;
 import com.notification.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
+    private final NotificationRuleStateRepository ruleStateRepository;
+    private final AlertProperties alertProperties;
+    private final ForecastService forecastService;
     private final UserContext userContext;
 
     @Override
@@ -55,30 +69,104 @@ public class NotificationServiceImpl implements NotificationService {
 //    }
 
     @Override
+    @Transactional
     public void delete(UUID id) {
         notificationRepository.deleteById(id);
+        ruleStateRepository.deleteById(id);
     }
 
+    // состояние сработавших правил не сохраняется здесь: если отправка упадёт, повтор из retry-топика
+    // должен снова увидеть правило несработавшим и вернуть то же сообщение
     @Override
-    public List<String> checkRule(StorageData data) {
+    @Transactional
+    public RuleCheckResult checkRule(StorageData data) {
         List<String> notifications = new ArrayList<>();
+        List<NotificationRuleState> fired = new ArrayList<>();
         List<NotificationRule> rules = notificationRepository.getByStorageId(data.getStorageId());
+        if (rules.isEmpty()) {
+            return new RuleCheckResult(notifications, fired);
+        }
 
         double fullnessPercentage = (data.getFullness() / data.getCapacity()) * 100;
+        Double hoursToFull = rules.stream().anyMatch(rule -> rule.getCondition() == NotificationCondition.FULL_WITHIN_HOURS)
+                ? forecastService.get(data.getStorageId()).map(forecastService::hoursToFull).orElse(null)
+                : null;
+
+        Map<UUID, NotificationRuleState> states = ruleStateRepository
+                .findAllById(rules.stream().map(NotificationRule::getId).toList()).stream()
+                .collect(Collectors.toMap(NotificationRuleState::getRuleId, Function.identity()));
+        List<NotificationRuleState> rearmed = new ArrayList<>();
+        Instant now = Instant.now();
 
         for (NotificationRule rule : rules) {
             if (!rule.isActive()) continue;
 
-            if (rule.getCondition() == NotificationCondition.BELOW && fullnessPercentage < rule.getThresholdValue()) {
-                notifications.add("Storage " + data.getStorageName() + " fullness is BELOW " +
-                        rule.getThresholdValue() + "% (current: " + String.format("%.1f", fullnessPercentage) + "%)");
-            } else if (rule.getCondition() == NotificationCondition.ABOVE && fullnessPercentage > rule.getThresholdValue()) {
-                notifications.add("Storage " + data.getStorageName() + " fullness is ABOVE " +
-                        rule.getThresholdValue() + "% (current: " + String.format("%.1f", fullnessPercentage) + "%)");
+            NotificationRuleState state = states.computeIfAbsent(rule.getId(),
+                    ruleId -> NotificationRuleState.builder().ruleId(ruleId).build());
+
+            if (isTriggered(rule, fullnessPercentage, hoursToFull)) {
+                // алертим только на пересечении порога, а не на каждом событии выше него
+                if (!state.isFired() && isCooledDown(state, now)) {
+                    // отдельный объект, а не загруженная сущность: её изменение ушло бы в БД
+                    // dirty checking'ом при коммите этой транзакции, ещё до отправки
+                    fired.add(NotificationRuleState.builder()
+                            .ruleId(rule.getId())
+                            .fired(true)
+                            .lastFiredAt(Timestamp.from(now))
+                            .build());
+                    notifications.add(formatMessage(rule, data, fullnessPercentage, hoursToFull));
+                }
+            } else if (state.isFired() && isRearmed(rule, fullnessPercentage, hoursToFull)) {
+                state.setFired(false);
+                rearmed.add(state);
             }
         }
 
-        return notifications;
+        if (!rearmed.isEmpty()) {
+            ruleStateRepository.saveAll(rearmed);
+        }
+
+        return new RuleCheckResult(notifications, fired);
+    }
+
+    @Override
+    @Transactional
+    public void markFired(List<NotificationRuleState> states) {
+        if (!states.isEmpty()) {
+            ruleStateRepository.saveAll(states);
+        }
     }
 
+    private boolean isTriggered(NotificationRule rule, double fullnessPercentage, Double hoursToFull) {
+        return switch (rule.getCondition()) {
+            case ABOVE -> fullnessPercentage > rule.getThresholdValue();
+            case BELOW -> fullnessPercentage < rule.getThresholdValue();
+            case FULL_WITHIN_HOURS -> hoursToFull != null && hoursToFull <= rule.getThresholdValue();
+        };
+    }
+
+    private boolean isRearmed(NotificationRule rule, double fullnessPercentage, Double hoursToFull) {
+        double hysteresis = alertProperties.getHysteresis();
+        return switch (rule.getCondition()) {
+            case ABOVE -> fullnessPercentage <= rule.getThresholdValue() - hysteresis;
+            case BELOW -> fullnessPercentage >= rule.getThresholdValue() + hysteresis;
+            case FULL_WITHIN_HOURS -> hoursToFull == null
+                    || hoursToFull >= rule.getThresholdValue() + alertProperties.getForecastHysteresisHours();
+        };
+    }
+
+    private String formatMessage(NotificationRule rule, StorageData data, double fullnessPercentage, Double hoursToFull) {
+        if (rule.getCondition() == NotificationCondition.FULL_WITHIN_HOURS) {
+            return "Storage " + data.getStorageName() + " will be full within " + rule.getThresholdValue() +
+                    " hours (forecast: " + String.format("%.1f", hoursToFull) + " h, current: " +
+                    String.format("%.1f", fullnessPercentage) + "%)";
+        }
+        return "Storage " + data.getStorageName() + " fullness is " + rule.getCondition() + " " +
+                rule.getThresholdValue() + "% (current: " + String.format("%.1f", fullnessPercentage) + "%)";
+    }
+
+    private boolean isCooledDown(NotificationRuleState state, Instant now) {
+        return state.getLastFiredAt() == null
+                || !state.getLastFiredAt().toInstant().plus(alertProperties.getCooldown()).isAfter(now);
+    }
 }
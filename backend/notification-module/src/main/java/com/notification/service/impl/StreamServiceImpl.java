@@ -0,0 +1,151 @@
+package com.notification.service.impl;
+
+import com.notification.model.dto.StorageUpdateEvent;
+import com.notification.service.StreamService;
+import com.notification.service.props.StreamProperties;
+import com.storage.model.notification.StorageData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamServiceImpl implements StreamService {
+    private final StreamProperties properties;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID userId, Set<UUID> storageIds) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(userId, storageIds, emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        return emitter;
+    }
+
+    @Override
+    public void publishStorage(StorageData data) {
+        StorageUpdateEvent payload = StorageUpdateEvent.builder()
+                .storageId(data.getStorageId())
+                .storageName(data.getStorageName())
+                .fullness(data.getFullness())
+                .capacity(data.getCapacity())
+                .build();
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.storageIds.isEmpty() || subscriber.storageIds.contains(data.getStorageId())) {
+                enqueue(subscriber, SseEmitter.event().name("storage").data(payload));
+            }
+        }
+    }
+
+    @Override
+    public void publishAlert(UUID userId, String message) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.userId.equals(userId)) {
+                enqueue(subscriber, SseEmitter.event().name("alert").data(message));
+            }
+        }
+    }
+
+    // не даём прокси закрыть соединение у тех, кому давно ничего не приходило
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat:PT30S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("ping")));
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        synchronized (subscriber.buffer) {
+            if (subscriber.buffer.size() >= properties.getBufferSize()) {
+                subscriber.buffer.pollFirst();
+            }
+            subscriber.buffer.addLast(event);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // на каждого подписчика работает не больше одной задачи, поэтому порядок событий сохраняется
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = poll(subscriber)) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE subscriber of user {} disconnected: {}", subscriber.userId, e.getMessage());
+            subscribers.remove(subscriber);
+            // без этого async-запрос сервлета висит до таймаута эмиттера
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        boolean hasMore;
+        synchronized (subscriber.buffer) {
+            hasMore = !subscriber.buffer.isEmpty();
+        }
+        if (hasMore && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder poll(Subscriber subscriber) {
+        synchronized (subscriber.buffer) {
+            return subscriber.buffer.pollFirst();
+        }
+    }
+
+    private static class Subscriber {
+        private final UUID userId;
+        private final Set<UUID> storageIds;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(UUID userId, Set<UUID> storageIds, SseEmitter emitter) {
+            this.userId = userId;
+            this.storageIds = storageIds;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.alert")
+public class AlertProperties {
+
+    // на сколько процентов заполненность должна отойти от порога ABOVE/BELOW, чтобы правило перевзвелось
+    private double hysteresis = 5.0;
+
+    // то же для FULL_WITHIN_HOURS, в часах прогноза
+    private double forecastHysteresisHours = 2.0;
+
+    // минимальный интервал между повторными срабатываниями одного правила
+    private Duration cooldown = Duration.ofMinutes(30);
+}
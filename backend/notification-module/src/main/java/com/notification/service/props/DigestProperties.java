@@ -0,0 +1,20 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.digest")
+public class DigestProperties {
+
+    // сверх этого сообщения в дайджесте не перечисляются, только считаются
+    private int maxPerRecipient = 200;
+
+    // настройка digest кэшируется на экземпляре; за это время доходит изменение, сделанное через другой экземпляр
+    private Duration preferenceCacheTtl = Duration.ofMinutes(1);
+    private int preferenceCacheSize = 10_000;
+}
@@ -0,0 +1,16 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.forecast")
+public class ForecastProperties {
+
+    // постоянная времени EWMA: чем больше, тем медленнее прогноз реагирует на всплески
+    private Duration smoothing = Duration.ofHours(6);
+}
@@ -0,0 +1,20 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.history")
+public class HistoryProperties {
+
+    private Duration rawRetention = Duration.ofDays(7);
+    private Duration minuteRetention = Duration.ofDays(30);
+    private Duration hourRetention = Duration.ofDays(365);
+
+    // сырые точки отдаём только на коротких интервалах, длинные графики строятся по роллапам
+    private Duration rawMaxSpan = Duration.ofDays(1);
+}
@@ -0,0 +1,34 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.mail")
+public class MailDispatchProperties {
+
+    private int queueCapacity = 1000;
+    private int workers = 2;
+
+    // сколько писем отправляется за одно SMTP-соединение
+    private int batchSize = 20;
+
+    // сколько listener ждёт места в очереди, прежде чем отдать ошибку
+    private Duration enqueueTimeout = Duration.ofSeconds(5);
+
+    private double ratePerSecond = 5;
+    private int burst = 10;
+
+    private double recipientPerMinute = 6;
+    private int recipientBurst = 3;
+
+    // неотправленное письмо повторяется с растущей задержкой, после maxAttempts попыток выбрасывается
+    private int maxAttempts = 5;
+    private Duration retryDelay = Duration.ofSeconds(2);
+    private double retryMultiplier = 3;
+    private Duration maxRetryDelay = Duration.ofMinutes(5);
+}
@@ -0,0 +1,20 @@
+package com.notification.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "notification.stream")
+public class StreamProperties {
+
+    // сколько событий копится для медленного клиента, дальше выбрасываются самые старые
+    private int bufferSize = 64;
+
+    private int senderThreads = 4;
+
+    private Duration timeout = Duration.ofMinutes(30);
+}
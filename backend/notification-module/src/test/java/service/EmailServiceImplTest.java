@@ -0,0 +1,157 @@
+package service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.notification.service.impl.EmailServiceImpl;
+import com.notification.service.props.MailDispatchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailServiceImplTest {
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl mailSender;
+    private MailDispatchProperties properties;
+    private MeterRegistry meterRegistry;
+    private EmailServiceImpl emailService;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+
+        mailSender = spy(new JavaMailSenderImpl());
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        properties = new MailDispatchProperties();
+        properties.setWorkers(1);
+        properties.setRatePerSecond(1000);
+        properties.setBurst(1000);
+        properties.setRecipientPerMinute(60_000);
+        properties.setRecipientBurst(1000);
+        properties.setRetryDelay(Duration.ofMillis(100));
+        properties.setRetryMultiplier(1);
+        properties.setEnqueueTimeout(Duration.ofMillis(500));
+
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (emailService != null) {
+            emailService.stop();
+        }
+        greenMail.stop();
+    }
+
+    private void start() {
+        emailService = new EmailServiceImpl(mailSender, properties, meterRegistry);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "alerts@storage.test");
+        emailService.start();
+    }
+
+    private double counter(String name, String reason) {
+        return meterRegistry.counter(name, "reason", reason).count();
+    }
+
+    @Test
+    void sendEmail_batchesQueuedMessages() throws Exception {
+        CountDownLatch enqueued = new CountDownLatch(1);
+        doAnswer(inv -> {
+            // первая отправка ждёт, пока остальные письма окажутся в очереди
+            enqueued.await(5, TimeUnit.SECONDS);
+            return inv.callRealMethod();
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+        start();
+
+        for (int i = 0; i < 10; i++) {
+            emailService.sendEmail("user" + i + "@storage.test", "Storage Alert", "message " + i);
+        }
+        enqueued.countDown();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 10));
+        verify(mailSender, atMost(2)).send(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void sendEmail_globalLimitPacesDispatch() {
+        properties.setRatePerSecond(4);
+        properties.setBurst(1);
+        start();
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            emailService.sendEmail("user" + i + "@storage.test", "Storage Alert", "message " + i);
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 5));
+        // один токен сразу, остальные четыре - по 250 мс
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void sendEmail_recipientLimitDefersInsteadOfDropping() {
+        properties.setRecipientPerMinute(600);
+        properties.setRecipientBurst(1);
+        start();
+
+        for (int i = 0; i < 3; i++) {
+            emailService.sendEmail("same@storage.test", "Storage Alert", "message " + i);
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 3));
+        assertEquals(3, greenMail.getReceivedMessagesForDomain("same@storage.test").length);
+        assertTrue(counter("notification.mail.retried", "rate_limit") >= 1);
+        assertEquals(0, counter("notification.mail.dropped", "overflow"));
+    }
+
+    @Test
+    void sendEmail_smtpOutageIsRetried() {
+        // две неудачные отправки подряд, затем SMTP снова доступен; порядок не зависит от таймингов
+        doThrow(new MailSendException("Connection refused"))
+                .doThrow(new MailSendException("Connection refused"))
+                .doCallRealMethod()
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        start();
+
+        emailService.sendEmail("user@storage.test", "Storage Alert", "message");
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        verify(mailSender, times(3)).send(any(SimpleMailMessage[].class));
+        assertEquals(2, counter("notification.mail.retried", "error"));
+        assertEquals(0, counter("notification.mail.dropped", "failed"));
+    }
+
+    @Test
+    void sendEmail_givesUpAfterMaxAttempts() throws InterruptedException {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+        properties.setMaxAttempts(2);
+        start();
+
+        emailService.sendEmail("user@storage.test", "Storage Alert", "message");
+
+        verify(mailSender, timeout(5000).times(2)).send(any(SimpleMailMessage[].class));
+        long deadline = System.currentTimeMillis() + 2000;
+        while (counter("notification.mail.dropped", "failed") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, counter("notification.mail.dropped", "failed"));
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+}
@@ -0,0 +1,99 @@
+package service;
+
+import com.notification.model.NotificationCondition;
+import com.notification.model.dto.RuleCheckResult;
+import com.notification.model.entity.NotificationRule;
+import com.notification.model.entity.NotificationRuleState;
+import com.notification.repository.NotificationRepository;
+import com.notification.repository.NotificationRuleStateRepository;
+import com.notification.service.ForecastService;
+import com.notification.service.impl.NotificationServiceImpl;
+import com.notification.service.props.AlertProperties;
+import com.storage.config.UserContext;
+import com.storage.model.notification.StorageData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceImplTest {
+
+    private NotificationRepository notificationRepository;
+    private NotificationRuleStateRepository ruleStateRepository;
+    private NotificationServiceImpl notificationService;
+
+    private final UUID storageId = UUID.randomUUID();
+    private final UUID ruleId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        ruleStateRepository = mock(NotificationRuleStateRepository.class);
+        notificationService = new NotificationServiceImpl(notificationRepository, ruleStateRepository,
+                new AlertProperties(), mock(ForecastService.class), mock(UserContext.class));
+
+        when(notificationRepository.getByStorageId(storageId)).thenReturn(List.of(NotificationRule.builder()
+                .id(ruleId)
+                .name("full")
+                .storageId(storageId)
+                .thresholdValue(80)
+                .condition(NotificationCondition.ABOVE)
+                .isActive(true)
+                .build()));
+    }
+
+    private StorageData data(double fullness) {
+        return StorageData.builder()
+                .storageId(storageId)
+                .storageName("main")
+                .fullness(fullness)
+                .capacity(100.0)
+                .build();
+    }
+
+    @Test
+    void checkRule_leavesLoadedStateUntouchedUntilDispatched() {
+        // the state loaded in checkRule's transaction is managed: any change to it is flushed on commit
+        NotificationRuleState loaded = NotificationRuleState.builder().ruleId(ruleId).fired(false).build();
+        when(ruleStateRepository.findAllById(anyIterable())).thenReturn(List.of(loaded));
+
+        RuleCheckResult result = notificationService.checkRule(data(90));
+
+        assertEquals(1, result.getMessages().size());
+        // dispatch has not happened yet, so a redelivery must still see the rule unfired
+        assertFalse(loaded.isFired());
+        assertNull(loaded.getLastFiredAt());
+        verify(ruleStateRepository, never()).saveAll(anyIterable());
+
+        NotificationRuleState fired = result.getFired().get(0);
+        assertNotSame(loaded, fired);
+        assertTrue(fired.isFired());
+        assertEquals(ruleId, fired.getRuleId());
+    }
+
+    @Test
+    void checkRule_retryAfterFailedDispatchFiresAgain() {
+        NotificationRuleState loaded = NotificationRuleState.builder().ruleId(ruleId).fired(false).build();
+        when(ruleStateRepository.findAllById(anyIterable())).thenReturn(List.of(loaded));
+
+        notificationService.checkRule(data(90));
+        // dispatch failed: markFired is never called and the record is redelivered
+        RuleCheckResult retry = notificationService.checkRule(data(90));
+
+        assertEquals(1, retry.getMessages().size());
+    }
+
+    @Test
+    void markFired_persistsStates() {
+        NotificationRuleState fired = NotificationRuleState.builder().ruleId(ruleId).fired(true).build();
+
+        notificationService.markFired(List.of(fired));
+
+        verify(ruleStateRepository).saveAll(List.of(fired));
+    }
+}
@@ -0,0 +1,51 @@
+package com.qr.controller;
+
+import com.qr.exception.QRCodeException;
+import com.qr.model.dto.DecodeResponse;
+import com.qr.model.dto.DecodedImage;
+import com.qr.model.dto.LabelObject;
+import com.qr.service.QRDecodeService;
+import com.qr.service.StorageClient;
+import com.qr.service.props.QRDecodeProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/qr/decode")
+@RequiredArgsConstructor
+public class DecodeController {
+    private final QRDecodeService decodeService;
+    private final StorageClient storageClient;
+    private final QRDecodeProperties properties;
+
+    // снимки декодируются параллельно, а найденные id разрешаются одним пакетным запросом в storage-module
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DecodeResponse> decode(@RequestParam("files") List<MultipartFile> files) {
+        if (files.isEmpty() || files.size() > properties.getMaxFiles()) {
+            throw new QRCodeException("Number of files must be between 1 and " + properties.getMaxFiles());
+        }
+
+        List<DecodedImage> images = decodeService.decode(files);
+        Set<UUID> ids = images.stream()
+                .flatMap(image -> image.getObjectIds().stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        List<LabelObject> objects = ids.isEmpty() ? List.of() : storageClient.findByIds(ids);
+        Set<UUID> found = objects.stream().map(LabelObject::getId).collect(Collectors.toSet());
+
+        return ResponseEntity.ok(DecodeResponse.builder()
+                .images(images)
+                .objects(objects)
+                .unknownIds(ids.stream().filter(id -> !found.contains(id)).toList())
+                .build());
+    }
+}
@@ -1,6 +1,9 @@
 package com.qr.controller;
 
+import com.qr.exception.BadRequestException;
+import com.qr.exception.NotFoundException;
 import com.qr.exception.QRCodeException;
+import com.qr.exception.ServiceUnavailableException;
 import com.qr.model.error.ErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,4 +25,27 @@ public class ExceptionHandlers {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(409));
     }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleBadRequest(final BadRequestException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(400));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleNotFound(final NotFoundException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(404));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleServiceUnavailable(final ServiceUnavailableException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(errorResponse);
+    }
 }
@@ -0,0 +1,98 @@
+package com.qr.controller;
+
+import com.qr.exception.BadRequestException;
+import com.qr.exception.NotFoundException;
+import com.qr.model.dto.LabelObject;
+import com.qr.model.dto.LabelRequest;
+import com.qr.service.LabelSheetService;
+import com.qr.service.StorageClient;
+import com.qr.service.props.LabelProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/qr/labels")
+@RequiredArgsConstructor
+public class LabelController {
+    private final LabelSheetService labelSheetService;
+    private final StorageClient storageClient;
+    private final LabelProperties properties;
+
+    @GetMapping
+    public ResponseEntity<?> forStorage(@RequestParam("storage_id") UUID storageId,
+                                        @RequestParam(defaultValue = "pdf") String format,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(value = "base_url", required = false) String baseUrl)
+            throws IOException {
+        // на один больше лимита: этого хватает, чтобы отказать, не выгружая всё хранилище
+        return sheet(storageClient.findByStorage(storageId, properties.getMaxLabels() + 1), format, page, baseUrl);
+    }
+
+    @PostMapping
+    public ResponseEntity<?> forObjects(@RequestBody LabelRequest request,
+                                        @RequestParam(defaultValue = "pdf") String format,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(value = "base_url", required = false) String baseUrl)
+            throws IOException {
+        if (request.getObjectIds() == null || request.getObjectIds().isEmpty()) {
+            throw new BadRequestException("object_ids must not be empty");
+        }
+        if (request.getObjectIds().size() > properties.getMaxLabels()) {
+            throw new BadRequestException("Too many labels, max " + properties.getMaxLabels());
+        }
+        return sheet(storageClient.findByIds(request.getObjectIds()), format, page, baseUrl);
+    }
+
+    private ResponseEntity<?> sheet(List<LabelObject> objects, String format, int page, String baseUrl)
+            throws IOException {
+        if (objects == null || objects.isEmpty()) {
+            throw new NotFoundException("No objects to label");
+        }
+        if (objects.size() > properties.getMaxLabels()) {
+            throw new BadRequestException("Too many labels, max " + properties.getMaxLabels());
+        }
+        String url = resolveBaseUrl(baseUrl);
+        labelSheetService.checkCodeFits(url);
+
+        if ("png".equalsIgnoreCase(format)) {
+            if (page < 0 || page >= labelSheetService.pageCount(objects.size())) {
+                throw new NotFoundException("Page not found: " + page);
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .header("X-Page-Count", String.valueOf(labelSheetService.pageCount(objects.size())))
+                    .body(labelSheetService.renderPng(objects, url, page));
+        }
+        if (!"pdf".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported format: " + format);
+        }
+
+        StreamingResponseBody body = out -> labelSheetService.writePdf(objects, url, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"labels.pdf\"")
+                .body(body);
+    }
+
+    // адрес попадает в каждый код, поэтому принимаем только известные фронтенды
+    private String resolveBaseUrl(String baseUrl) {
+        if (baseUrl == null) {
+            return properties.getBaseUrl();
+        }
+        if (baseUrl.length() > properties.getMaxBaseUrlLength()) {
+            throw new BadRequestException("base_url is too long, max " + properties.getMaxBaseUrlLength());
+        }
+        if (!baseUrl.equals(properties.getBaseUrl()) && !properties.getAllowedBaseUrls().contains(baseUrl)) {
+            throw new BadRequestException("base_url is not allowed: " + baseUrl);
+        }
+        return baseUrl;
+    }
+}
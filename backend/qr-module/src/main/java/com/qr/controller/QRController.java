@@ -1,24 +1,85 @@
 package com.qr.controller;
 
-import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.qr.exception.BadRequestException;
+import com.qr.model.QRFormat;
+import com.qr.model.QRRenderOptions;
 import com.qr.service.QRService;
-import com.qr.service.QRServiceImpl;
+import com.qr.service.props.QRRenderProperties;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
 @RequestMapping("/qr")
+@RequiredArgsConstructor
 public class QRController {
-    private QRService qrService = new QRServiceImpl();
+    private final QRService qrService;
+    private final QRRenderProperties properties;
 
-    @GetMapping(produces = MediaType.IMAGE_PNG_VALUE)
-    public ResponseEntity<byte[]> create(@RequestBody String url) throws IOException, WriterException {
-        return new ResponseEntity<>(qrService.generate(url), HttpStatus.valueOf(200));
+    @GetMapping
+    public CompletableFuture<ResponseEntity<byte[]>> create(
+            @RequestParam String data,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer margin,
+            @RequestParam(defaultValue = "M") String ecc,
+            @RequestParam(defaultValue = "png") String format,
+            WebRequest request) {
+        return render(data, options(size, margin, ecc, format), request);
     }
-}
\ No newline at end of file
+
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> createFromBody(
+            @RequestBody String data,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer margin,
+            @RequestParam(defaultValue = "M") String ecc,
+            @RequestParam(defaultValue = "png") String format,
+            WebRequest request) {
+        return render(data, options(size, margin, ecc, format), request);
+    }
+
+    // ответ отдаётся асинхронно: поток запроса не ждёт отрисовку в пуле
+    private CompletableFuture<ResponseEntity<byte[]>> render(String data, QRRenderOptions options, WebRequest request) {
+        String etag = "\"" + qrService.getKey(data, options) + "\"";
+        if (request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+
+        return qrService.generate(data, options).thenApply(image -> ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.parseMediaType(options.getFormat().getContentType()))
+                .body(image));
+    }
+
+    private QRRenderOptions options(Integer size, Integer margin, String ecc, String format) {
+        int qrSize = size != null ? size : properties.getDefaultSize();
+        if (qrSize < 21 || qrSize > properties.getMaxSize()) {
+            throw new BadRequestException("Size must be between 21 and " + properties.getMaxSize());
+        }
+        int qrMargin = margin != null ? margin : properties.getDefaultMargin();
+        if (qrMargin < 0 || qrMargin > properties.getMaxMargin()) {
+            throw new BadRequestException("Margin must be between 0 and " + properties.getMaxMargin());
+        }
+
+        try {
+            return QRRenderOptions.builder()
+                    .size(qrSize)
+                    .margin(qrMargin)
+                    .errorCorrection(ErrorCorrectionLevel.valueOf(ecc.toUpperCase()))
+                    .format(QRFormat.valueOf(format.toUpperCase()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported ecc or format: " + ecc + ", " + format);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.qr.model;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class QRRenderOptions {
+    private int size;
+    private int margin;
+    private ErrorCorrectionLevel errorCorrection;
+    private QRFormat format;
+}
@@ -0,0 +1,20 @@
+package com.qr.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DecodeResponse {
+    private List<DecodedImage> images;
+    private List<LabelObject> objects;
+
+    @JsonProperty("unknown_ids")
+    private List<UUID> unknownIds;
+}
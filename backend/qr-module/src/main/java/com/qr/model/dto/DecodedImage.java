@@ -0,0 +1,22 @@
+package com.qr.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DecodedImage {
+    private String file;
+    private List<String> codes;
+
+    @JsonProperty("object_ids")
+    private List<UUID> objectIds;
+
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.qr.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabelObject {
+    private UUID id;
+    private String name;
+
+    @JsonProperty("storage_id")
+    private UUID storageId;
+
+    private boolean decommissioned;
+}
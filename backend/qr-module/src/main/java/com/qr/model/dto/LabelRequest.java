@@ -0,0 +1,18 @@
+package com.qr.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabelRequest {
+
+    @JsonProperty("object_ids")
+    private List<UUID> objectIds;
+}
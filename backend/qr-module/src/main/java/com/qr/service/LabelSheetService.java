@@ -0,0 +1,18 @@
+package com.qr.service;
+
+import com.qr.model.dto.LabelObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface LabelSheetService {
+
+    void writePdf(List<LabelObject> objects, String baseUrl, OutputStream out) throws IOException;
+
+    byte[] renderPng(List<LabelObject> objects, String baseUrl, int page) throws IOException;
+
+    int pageCount(int labels);
+
+    void checkCodeFits(String baseUrl);
+}
@@ -0,0 +1,216 @@
+package com.qr.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.qr.exception.BadRequestException;
+import com.qr.exception.QRCodeException;
+import com.qr.model.dto.LabelObject;
+import com.qr.service.props.LabelProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+@Service
+@RequiredArgsConstructor
+public class LabelSheetServiceImpl implements LabelSheetService {
+    private static final double A4_WIDTH_PT = 595.28;
+    private static final double A4_HEIGHT_PT = 841.89;
+    private static final int MARGIN = 40;
+    private static final int PADDING = 10;
+
+    private final LabelProperties properties;
+
+    private ForkJoinPool encoders;
+
+    @PostConstruct
+    public void start() {
+        encoders = new ForkJoinPool(properties.getParallelism());
+    }
+
+    @PreDestroy
+    public void stop() {
+        encoders.shutdownNow();
+    }
+
+    @Override
+    public int pageCount(int labels) {
+        int perPage = properties.getColumns() * properties.getRows();
+        return (labels + perPage - 1) / perPage;
+    }
+
+    // данные всех кодов одной длины (id — UUID), поэтому достаточно проверить один до начала отдачи листа
+    @Override
+    public void checkCodeFits(String baseUrl) {
+        BitMatrix code = encode(baseUrl + "/object/" + new UUID(0, 0));
+        if (code.getWidth() > qrBox()) {
+            throw new BadRequestException("QR code does not fit the label, base_url is too long");
+        }
+    }
+
+    // QR следующей страницы кодируются в пуле, пока текущая рисуется и уходит клиенту;
+    // в памяти одновременно не больше двух страниц
+    @Override
+    public void writePdf(List<LabelObject> objects, String baseUrl, OutputStream out) throws IOException {
+        int pages = pageCount(objects.size());
+        PdfStreamWriter pdf = new PdfStreamWriter(out);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] buffer = new byte[64 * 1024];
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try {
+            CompletableFuture<List<BitMatrix>> next = encodeAsync(page(objects, 0), baseUrl);
+            for (int i = 0; i < pages; i++) {
+                List<BitMatrix> codes = next.join();
+                if (i + 1 < pages) {
+                    next = encodeAsync(page(objects, i + 1), baseUrl);
+                }
+
+                BufferedImage image = draw(page(objects, i), codes);
+                byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+                deflater.reset();
+                deflater.setInput(pixels);
+                deflater.finish();
+                compressed.reset();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+                pdf.addPage(compressed.toByteArray(), compressed.size(), image.getWidth(), image.getHeight(),
+                        A4_WIDTH_PT, A4_HEIGHT_PT);
+            }
+            pdf.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] renderPng(List<LabelObject> objects, String baseUrl, int page) throws IOException {
+        List<LabelObject> labels = page(objects, page);
+        BufferedImage image = draw(labels, encodeAsync(labels, baseUrl).join());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private List<LabelObject> page(List<LabelObject> objects, int page) {
+        int perPage = properties.getColumns() * properties.getRows();
+        int from = Math.min(objects.size(), page * perPage);
+        return objects.subList(from, Math.min(objects.size(), from + perPage));
+    }
+
+    // parallelStream внутри задачи ForkJoinPool выполняется в этом же пуле, а не в общем
+    private CompletableFuture<List<BitMatrix>> encodeAsync(List<LabelObject> labels, String baseUrl) {
+        return CompletableFuture.supplyAsync(() -> labels.parallelStream()
+                .map(label -> encode(baseUrl + "/object/" + label.getId()))
+                .toList(), encoders);
+    }
+
+    private BitMatrix encode(String data) {
+        try {
+            return new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, 0, 0,
+                    Map.of(EncodeHintType.CHARACTER_SET, "UTF-8", EncodeHintType.MARGIN, 2));
+        } catch (WriterException e) {
+            throw new QRCodeException("Can't generate QR code");
+        }
+    }
+
+    private BufferedImage draw(List<LabelObject> labels, List<BitMatrix> codes) {
+        int width = properties.getPageWidth();
+        int height = properties.getPageHeight();
+        int cellWidth = (width - 2 * MARGIN) / properties.getColumns();
+        int cellHeight = (height - 2 * MARGIN) / properties.getRows();
+        int qrBox = qrBox();
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Font nameFont = new Font(Font.SANS_SERIF, Font.BOLD, 22);
+        Font idFont = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+
+        for (int i = 0; i < labels.size(); i++) {
+            int x = MARGIN + (i % properties.getColumns()) * cellWidth;
+            int y = MARGIN + (i / properties.getColumns()) * cellHeight;
+
+            drawCode(pixels, width, codes.get(i), x + PADDING, y + PADDING, qrBox);
+
+            int textX = x + qrBox + 3 * PADDING;
+            int textWidth = cellWidth - qrBox - 4 * PADDING;
+            graphics.setFont(nameFont);
+            graphics.drawString(fit(graphics, labels.get(i).getName(), textWidth), textX, y + PADDING + 30);
+            graphics.setFont(idFont);
+            graphics.drawString(fit(graphics, labels.get(i).getId().toString(), textWidth), textX, y + PADDING + 60);
+
+            graphics.setColor(Color.LIGHT_GRAY);
+            graphics.drawRect(x, y, cellWidth - 1, cellHeight - 1);
+            graphics.setColor(Color.BLACK);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private int qrBox() {
+        int cellWidth = (properties.getPageWidth() - 2 * MARGIN) / properties.getColumns();
+        int cellHeight = (properties.getPageHeight() - 2 * MARGIN) / properties.getRows();
+        return Math.min(cellHeight, cellWidth / 2) - 2 * PADDING;
+    }
+
+    // модули пишутся прямо в растр, без fillRect на каждый модуль; код шире ячейки залез бы на соседние этикетки
+    private void drawCode(byte[] pixels, int stride, BitMatrix code, int left, int top, int box) {
+        if (code.getWidth() > box) {
+            throw new QRCodeException("QR code does not fit the label");
+        }
+        int scale = box / code.getWidth();
+        for (int my = 0; my < code.getHeight(); my++) {
+            for (int mx = 0; mx < code.getWidth(); mx++) {
+                if (!code.get(mx, my)) {
+                    continue;
+                }
+                for (int dy = 0; dy < scale; dy++) {
+                    int row = (top + my * scale + dy) * stride + left + mx * scale;
+                    Arrays.fill(pixels, row, row + scale, (byte) 0);
+                }
+            }
+        }
+    }
+
+    private String fit(Graphics2D graphics, String text, int width) {
+        if (text == null) {
+            return "";
+        }
+        FontMetrics metrics = graphics.getFontMetrics();
+        if (metrics.stringWidth(text) <= width) {
+            return text;
+        }
+        String ellipsis = "…";
+        int end = text.length();
+        while (end > 0 && metrics.stringWidth(text.substring(0, end) + ellipsis) > width) {
+            end--;
+        }
+        return text.substring(0, end) + ellipsis;
+    }
+}
@@ -0,0 +1,89 @@
+package com.qr.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Минимальный потоковый писатель PDF: каждая страница — одно растровое изображение DeviceGray/FlateDecode.
+// Страница уходит в поток сразу после добавления; в памяти остаются только смещения объектов.
+public class PdfStreamWriter {
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+
+    private final OutputStream out;
+    private final List<Long> offsets = new ArrayList<>(List.of(0L, 0L));
+    private final List<Integer> pages = new ArrayList<>();
+    private long position;
+
+    public PdfStreamWriter(OutputStream out) throws IOException {
+        this.out = out;
+        write("%PDF-1.4\n%âãÏÓ\n");
+    }
+
+    // deflated — сжатые zlib байты серого растра width x height, по байту на пиксель
+    public void addPage(byte[] deflated, int deflatedLength, int width, int height,
+                        double pageWidth, double pageHeight) throws IOException {
+        int image = begin();
+        write("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+                + " /ColorSpace /DeviceGray /BitsPerComponent 8 /Filter /FlateDecode /Length " + deflatedLength
+                + " >>\nstream\n");
+        out.write(deflated, 0, deflatedLength);
+        position += deflatedLength;
+        write("\nendstream\nendobj\n");
+
+        String content = "q " + format(pageWidth) + " 0 0 " + format(pageHeight) + " 0 0 cm /Im0 Do Q";
+        int contents = begin();
+        write("<< /Length " + content.length() + " >>\nstream\n" + content + "\nendstream\nendobj\n");
+
+        int page = begin();
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + format(pageWidth) + " "
+                + format(pageHeight) + "] /Resources << /XObject << /Im0 " + image + " 0 R >> >> /Contents "
+                + contents + " 0 R >>\nendobj\n");
+        pages.add(page);
+
+        out.flush();
+    }
+
+    // каталог и дерево страниц пишутся в конце, когда известен список страниц
+    public void finish() throws IOException {
+        offsets.set(PAGES - 1, position);
+        StringBuilder kids = new StringBuilder();
+        for (int page : pages) {
+            kids.append(page).append(" 0 R ");
+        }
+        write(PAGES + " 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + pages.size() + " >>\nendobj\n");
+
+        offsets.set(CATALOG - 1, position);
+        write(CATALOG + " 0 obj\n<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        long xref = position;
+        StringBuilder table = new StringBuilder("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            table.append(String.format("%010d 00000 n \n", offset));
+        }
+        write(table.toString());
+        write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root " + CATALOG + " 0 R >>\nstartxref\n"
+                + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private int begin() throws IOException {
+        offsets.add(position);
+        int id = offsets.size();
+        write(id + " 0 obj\n");
+        return id;
+    }
+
+    private void write(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
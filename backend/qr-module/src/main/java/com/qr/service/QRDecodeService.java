@@ -0,0 +1,12 @@
+package com.qr.service;
+
+import com.qr.model.dto.DecodedImage;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface QRDecodeService {
+
+    List<DecodedImage> decode(List<MultipartFile> files);
+
+}
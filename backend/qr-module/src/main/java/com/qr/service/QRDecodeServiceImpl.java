@@ -0,0 +1,127 @@
+package com.qr.service;
+
+import com.google.zxing.*;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.qrcode.QRCodeMultiReader;
+import com.qr.exception.ServiceUnavailableException;
+import com.qr.model.dto.DecodedImage;
+import com.qr.service.props.QRDecodeProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class QRDecodeServiceImpl implements QRDecodeService {
+    // этикетки содержат ссылку {baseUrl}/object/{id}, но принимаем и голый UUID
+    private static final Pattern OBJECT_ID = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Map<DecodeHintType, Object> HINTS = Map.of(
+            DecodeHintType.TRY_HARDER, Boolean.TRUE,
+            DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+
+    private final QRDecodeProperties properties;
+
+    private ExecutorService decoders;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        decoders = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "qr-decode-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        decoders.shutdownNow();
+    }
+
+    @Override
+    public List<DecodedImage> decode(List<MultipartFile> files) {
+        List<CompletableFuture<DecodedImage>> tasks = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                tasks.add(CompletableFuture.supplyAsync(() -> decode(file), decoders));
+            }
+        } catch (RejectedExecutionException e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw new ServiceUnavailableException("QR decode queue is full, try again later");
+        }
+        return tasks.stream().map(CompletableFuture::join).toList();
+    }
+
+    // на одном снимке может оказаться несколько этикеток, поэтому используем multi-reader
+    private DecodedImage decode(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return failed(name, "Unsupported image format");
+            }
+            BufferedImage image;
+            ImageReader reader = readers.next();
+            try {
+                // размеры из заголовка проверяются до декодирования пикселей
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxPixels()) {
+                    return failed(name, "Image is too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+
+            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+            Result[] results = new QRCodeMultiReader().decodeMultiple(bitmap, HINTS);
+
+            List<String> codes = new ArrayList<>(results.length);
+            Set<UUID> objectIds = new LinkedHashSet<>();
+            for (Result result : results) {
+                codes.add(result.getText());
+                Matcher matcher = OBJECT_ID.matcher(result.getText());
+                while (matcher.find()) {
+                    objectIds.add(UUID.fromString(matcher.group()));
+                }
+            }
+            return DecodedImage.builder()
+                    .file(name)
+                    .codes(codes)
+                    .objectIds(List.copyOf(objectIds))
+                    .build();
+        } catch (NotFoundException e) {
+            return failed(name, "QR code not found");
+        } catch (Exception e) {
+            return failed(name, "Can't decode image: " + e.getMessage());
+        }
+    }
+
+    private DecodedImage failed(String name, String error) {
+        return DecodedImage.builder()
+                .file(name)
+                .codes(List.of())
+                .objectIds(List.of())
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.qr.service;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Кодирует BitMatrix напрямую в 1-битный grayscale PNG или SVG, минуя BufferedImage и ImageIO.
+public final class QRImageEncoder {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_UP = 2;
+
+    // Deflater и буферы переиспользуются в пределах потока
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[16 * 1024]);
+
+    private QRImageEncoder() {
+    }
+
+    public static byte[] toPng(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int stride = (width + 7) / 8;
+
+        // строка = байт фильтра + пиксели по 8 на байт; 1 — белый, 0 — чёрный
+        byte[] raw = new byte[(stride + 1) * height];
+        byte[] previous = new byte[stride];
+        byte[] current = new byte[stride];
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(current, (byte) 0xff);
+            for (int x = 0; x < width; x++) {
+                if (matrix.get(x, y)) {
+                    current[x >> 3] &= (byte) ~(0x80 >> (x & 7));
+                }
+            }
+
+            // Up зануляет повторяющиеся строки модулей, None — первую и «пёстрые»; берём меньшую сумму
+            int offset = y * (stride + 1);
+            long noneCost = 0;
+            long upCost = 0;
+            for (int i = 0; i < stride; i++) {
+                noneCost += Math.abs((int) current[i]);
+                upCost += Math.abs((int) (byte) (current[i] - previous[i]));
+            }
+            if (y > 0 && upCost < noneCost) {
+                raw[offset] = FILTER_UP;
+                for (int i = 0; i < stride; i++) {
+                    raw[offset + 1 + i] = (byte) (current[i] - previous[i]);
+                }
+            } else {
+                raw[offset] = FILTER_NONE;
+                System.arraycopy(current, 0, raw, offset + 1, stride);
+            }
+
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 128);
+        out.writeBytes(SIGNATURE);
+
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 1;  // bit depth
+        header[9] = 0;  // grayscale
+        writeChunk(out, "IHDR", header, header.length);
+
+        Deflater deflater = DEFLATER.get();
+        byte[] buffer = BUFFER.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            compressed.write(buffer, 0, length);
+        }
+        writeChunk(out, "IDAT", compressed.toByteArray(), compressed.size());
+        writeChunk(out, "IEND", new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    // matrix здесь без масштабирования: один бит на модуль, размер задаётся атрибутами svg
+    public static byte[] toSvg(BitMatrix matrix, int size) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        StringBuilder path = new StringBuilder(width * height / 2);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size
+                + "\" viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] number = new byte[4];
+
+        writeInt(number, 0, length);
+        out.writeBytes(number);
+        out.writeBytes(typeBytes);
+        out.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt(number, 0, (int) crc.getValue());
+        out.writeBytes(number);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
@@ -1,11 +1,13 @@
 package com.qr.service;
 
-import com.google.zxing.WriterException;
+import com.qr.model.QRRenderOptions;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public interface QRService {
-    byte[] generate(String data) throws WriterException, IOException;
+    CompletableFuture<byte[]> generate(String data, QRRenderOptions options);
+
+    String getKey(String data, QRRenderOptions options);
 }
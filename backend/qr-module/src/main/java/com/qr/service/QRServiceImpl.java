@@ -3,36 +3,122 @@ package com.qr.service;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.qr.exception.QRCodeException;
+import com.qr.exception.ServiceUnavailableException;
+import com.qr.model.QRFormat;
+import com.qr.model.QRRenderOptions;
+import com.qr.service.props.QRRenderProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
+@RequiredArgsConstructor
 public class QRServiceImpl implements QRService {
+    private final QRRenderProperties properties;
+
+    // готовые изображения по ключу (хэш данных и параметров отрисовки), вытесняются по LRU при превышении объёма
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheBytes;
+    private ExecutorService renderers;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        renderers = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "qr-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderers.shutdownNow();
+    }
+
     @Override
-    public byte[] generate(String data) throws WriterException, IOException {
+    public CompletableFuture<byte[]> generate(String data, QRRenderOptions options) {
+        String key = getKey(data, options);
+        synchronized (cache) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                byte[] image = render(data, options);
+                remember(key, image);
+                return image;
+            }, renderers);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("QR render queue is full, try again later");
+        }
+    }
+
+    // отрисовка детерминирована, поэтому ключ годится и как сильный ETag
+    @Override
+    public String getKey(String data, QRRenderOptions options) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((options.getFormat() + ":" + options.getSize() + ":" + options.getMargin() + ":"
+                    + options.getErrorCorrection() + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(data.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void remember(String key, byte[] image) {
+        synchronized (cache) {
+            if (cache.put(key, image) == null) {
+                cacheBytes += image.length;
+            }
+            Iterator<byte[]> eldest = cache.values().iterator();
+            while (cacheBytes > properties.getCacheBytes() && eldest.hasNext()) {
+                cacheBytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private byte[] render(String data, QRRenderOptions options) {
         try {
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
             Map<EncodeHintType, Object> hints = new HashMap<>();
             hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+            hints.put(EncodeHintType.MARGIN, options.getMargin());
+            hints.put(EncodeHintType.ERROR_CORRECTION, options.getErrorCorrection());
 
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, 200, 200, hints);
-            BufferedImage image = MatrixToImageWriter.toBufferedImage(bitMatrix);
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageIO.write(image, "PNG", outputStream);
+            // для SVG нужна матрица модулей без масштабирования, размер задаёт сам SVG
+            if (options.getFormat() == QRFormat.SVG) {
+                BitMatrix modules = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, 0, 0, hints);
+                return QRImageEncoder.toSvg(modules, options.getSize());
+            }
 
-            return outputStream.toByteArray();
-        } catch (WriterException | IOException e) {
+            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE,
+                    options.getSize(), options.getSize(), hints);
+            return QRImageEncoder.toPng(bitMatrix);
+        } catch (WriterException e) {
             throw new QRCodeException("Can't generate QR code");
         }
     }
@@ -0,0 +1,82 @@
+package com.qr.service;
+
+import com.qr.exception.NotFoundException;
+import com.qr.model.dto.LabelObject;
+import com.qr.service.props.StorageProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.*;
+
+// Обращается к storage-module напрямую, пробрасывая заголовки пользователя, выставленные шлюзом.
+@Service
+public class StorageClient {
+    private static final List<String> USER_HEADERS = List.of("X-User-Id", "X-User-Roles", "X-User-Mail");
+    private static final ParameterizedTypeReference<List<LabelObject>> OBJECT_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final RestClient restClient;
+    private final StorageProperties properties;
+
+    public StorageClient(RestClient.Builder builder, StorageProperties properties) {
+        this.restClient = builder.baseUrl(properties.getUrl()).build();
+        this.properties = properties;
+    }
+
+    public List<LabelObject> findByStorage(UUID storageId, int limit) {
+        return restClient.get()
+                .uri(uri -> uri.path("/objects")
+                        .queryParam("storage_id", storageId)
+                        .queryParam("limit", limit)
+                        .build())
+                .headers(this::forwardUserHeaders)
+                .retrieve()
+                .onStatus(status -> status.value() == 404, (request, response) -> {
+                    throw new NotFoundException("Storage not found with id: " + storageId);
+                })
+                .body(OBJECT_LIST);
+    }
+
+    // один запрос на пачку; storage-module отдаёт объекты в произвольном порядке, поэтому результат
+    // раскладывается в порядке запроса; ненайденные id пропускаются
+    public List<LabelObject> findByIds(Collection<UUID> ids) {
+        List<UUID> distinct = ids.stream().distinct().toList();
+        Map<UUID, LabelObject> found = new HashMap<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += properties.getLookupBatchSize()) {
+            List<UUID> batch = distinct.subList(from, Math.min(distinct.size(), from + properties.getLookupBatchSize()));
+            List<LabelObject> objects = restClient.post()
+                    .uri("/objects/lookup")
+                    .headers(this::forwardUserHeaders)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(batch)
+                    .retrieve()
+                    .body(OBJECT_LIST);
+            if (objects != null) {
+                objects.forEach(object -> found.put(object.getId(), object));
+            }
+        }
+        return distinct.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void forwardUserHeaders(HttpHeaders headers) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        for (String name : USER_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+    }
+}
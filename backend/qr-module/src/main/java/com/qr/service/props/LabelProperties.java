@@ -0,0 +1,28 @@
+package com.qr.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "qr.label")
+public class LabelProperties {
+
+    // QR на этикетке ведёт на карточку объекта во фронтенде: {baseUrl}/object/{id}
+    private String baseUrl;
+    // base_url из запроса принимается, только если совпадает с baseUrl или есть в этом списке
+    private List<String> allowedBaseUrls = new ArrayList<>();
+    private int maxBaseUrlLength = 256;
+    // A4 при 150 dpi
+    private int pageWidth = 1240;
+    private int pageHeight = 1754;
+    private int columns = 3;
+    private int rows = 8;
+    private int maxLabels = 10_000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+}
@@ -0,0 +1,18 @@
+package com.qr.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "qr.decode")
+public class QRDecodeProperties {
+
+    private int maxFiles = 500;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1000;
+    // снимки крупнее не декодируются: маленький PNG может распаковаться в гигабайты пикселей
+    private long maxPixels = 40_000_000;
+
+}
@@ -0,0 +1,21 @@
+package com.qr.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "qr.render")
+public class QRRenderProperties {
+
+    private int defaultSize = 200;
+    private int maxSize = 2000;
+    private int defaultMargin = 4;
+    private int maxMargin = 20;
+    // отрисовка идёт в отдельном пуле; при заполненной очереди запрос отклоняется с 503
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 100;
+    private long cacheBytes = 32L * 1024 * 1024;
+
+}
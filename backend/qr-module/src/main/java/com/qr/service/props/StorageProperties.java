@@ -0,0 +1,16 @@
+package com.qr.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    private String url;
+    // ограничение storage-module на один запрос /objects/lookup
+    private int lookupBatchSize = 1000;
+
+}
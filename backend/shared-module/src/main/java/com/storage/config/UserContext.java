@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 @Component
@@ -58,4 +59,20 @@ public class UserContext {
             throw new IllegalStateException("Failed to get current user ID: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    public boolean hasRole(String role) {
+        ServletRequestAttributes attributes =
+                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+
+        // gateway передаёт роли как строку вида "[ADMIN, GUEST]"
+        String rolesHeader = attributes.getRequest().getHeader("X-User-Roles");
+        if (rolesHeader == null || rolesHeader.isEmpty()) {
+            return false;
+        }
+        return Arrays.stream(rolesHeader.replaceAll("[\\[\\]\\s]", "").split(","))
+                .anyMatch(role::equals);
+    }
+}
@@ -0,0 +1,18 @@
+package com.storage.model.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReferenceDataChanged {
+    // units или templates - совпадает с корнем пути в API
+    private String resource;
+    private UUID id;
+}
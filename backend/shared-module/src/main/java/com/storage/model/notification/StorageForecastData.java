@@ -0,0 +1,19 @@
+package com.storage.model.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageForecastData {
+    private UUID storageId;
+    private Double fillRatePerHour;
+    private Instant estimatedFullAt;
+}
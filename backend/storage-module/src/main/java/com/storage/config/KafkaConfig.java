@@ -23,4 +23,20 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    @Bean
+    public NewTopic storageForecastTopic() {
+        return TopicBuilder.name("storage-forecast")
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic referenceDataTopic() {
+        return TopicBuilder.name("reference-data")
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
 }
\ No newline at end of file
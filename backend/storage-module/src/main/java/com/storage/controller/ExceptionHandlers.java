@@ -3,6 +3,7 @@ package com.storage.controller;
 import com.storage.exception.ImageUploadException;
 import com.storage.exception.NotFoundException;
 import com.storage.exception.NotValidException;
+import com.storage.exception.ServiceUnavailableException;
 import com.storage.exception.StorageCapacityException;
 import com.storage.model.error.ErrorResponse;
 import org.springframework.http.HttpStatus;
@@ -49,4 +50,11 @@ public class ExceptionHandlers {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(400));
     }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleServiceUnavailable(final ServiceUnavailableException e) {
+        ErrorResponse errorResponse = new ErrorResponse(e.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(503));
+    }
 }
@@ -1,18 +1,31 @@
 package com.storage.controller;
 
+import com.storage.exception.NotFoundException;
+import com.storage.exception.NotValidException;
+import com.storage.model.dto.image.CachedImage;
+import com.storage.model.dto.image.ImageConfirmDto;
+import com.storage.model.dto.image.ImageMetadata;
+import com.storage.model.dto.image.PresignedUrlDto;
 import com.storage.model.dto.storage_object.StorageObjectCreate;
 import com.storage.model.dto.storage_object.StorageObjectCreateWithFileDto;
 import com.storage.model.dto.storage_object.StorageObjectUpdate;
 import com.storage.model.dto.storage_object.StorageObjectUpdateWithFileDto;
 import com.storage.model.entity.StorageObject;
 import com.storage.service.FileImageService;
+import com.storage.service.ImageCacheService;
+import com.storage.service.ImagePresignService;
+import com.storage.service.ImageRenditionService;
 import com.storage.service.StorageObjectService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,15 +34,27 @@ import java.util.UUID;
 @RequestMapping("/objects")
 @RequiredArgsConstructor
 public class StorageObjectController {
+    private static final int MAX_BULK_SIZE = 1000;
 
     private final StorageObjectService service;
     private final FileImageService fileImageService;
+    private final ImageRenditionService imageRenditionService;
+    private final ImagePresignService imagePresignService;
+    private final ImageCacheService imageCacheService;
 
     @GetMapping
     public ResponseEntity<List<StorageObject>> list(
             @RequestParam(required = false) @Valid UUID storage_id,
             @RequestParam(required = false) @Valid UUID template_id,
-            @RequestParam(required = false) @Valid Boolean decommissioned) {
+            @RequestParam(required = false) @Valid Boolean decommissioned,
+            @RequestParam(required = false) Integer limit) {
+        // limit нужен потребителям с собственным потолком (листы этикеток qr-module), чтобы не тянуть всё хранилище
+        if (storage_id != null && limit != null) {
+            if (limit <= 0) {
+                throw new NotValidException("limit must be positive");
+            }
+            return new ResponseEntity<>(service.findByStorage(storage_id, limit), HttpStatus.OK);
+        }
         return new ResponseEntity<>(service.find(storage_id, template_id, decommissioned), HttpStatus.OK);
     }
 
@@ -46,15 +71,113 @@ public class StorageObjectController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<StorageObject>> createBulk(@RequestBody @Valid List<@Valid StorageObjectCreate> dtos) {
+        if (dtos.isEmpty() || dtos.size() > MAX_BULK_SIZE) {
+            throw new NotValidException("Bulk size must be between 1 and " + MAX_BULK_SIZE);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.createAll(dtos));
+    }
+
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<StorageObject>> lookup(@RequestBody List<UUID> ids) {
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new NotValidException("Lookup size must not exceed " + MAX_BULK_SIZE);
+        }
+        return ResponseEntity.ok(service.findAllById(ids));
+    }
+
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> downloadImage(@PathVariable UUID id) {
+    public ResponseEntity<StreamingResponseBody> downloadImage(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Integer w,
+            @RequestParam(required = false) Integer h,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            HttpServletRequest request) {
         StorageObject object = service.getById(id);
+        if (object.getPhotoUrl() == null) {
+            throw new NotFoundException("Object has no image");
+        }
+
+        String fileName = w != null || h != null
+                ? imageRenditionService.getRendition(object.getPhotoUrl(), w, h)
+                : object.getPhotoUrl();
+        CachedImage cached = imageCacheService.get(fileName);
+        ImageMetadata metadata = cached != null ? cached.getMetadata() : fileImageService.stat(fileName);
+        if (cached == null) {
+            imageCacheService.load(metadata);
+        }
+        long size = metadata.getSize();
 
-        byte[] image = fileImageService.getObject(object.getPhotoUrl());
+        List<HttpRange> ranges;
+        try {
+            ranges = range != null ? HttpRange.parseRanges(range) : List.of();
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(size);
+        }
+
+        // несколько диапазонов не поддерживаем и отдаём объект целиком, это допустимо по RFC 9110
+        if (ranges.size() != 1) {
+            return image(ResponseEntity.ok(), cached, metadata, 0, size, request);
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(size);
+        }
+        long length = end - start + 1;
+
+        return image(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size),
+                cached, metadata, start, length, request);
+    }
+
+    // попадание в кэш отдаёт сам Tomcat через sendfile, тогда здесь пишутся только заголовки
+    private ResponseEntity<StreamingResponseBody> image(ResponseEntity.BodyBuilder builder, CachedImage cached,
+                                                        ImageMetadata metadata, long offset, long length,
+                                                        HttpServletRequest request) {
+        builder.contentType(contentType(metadata))
+                .contentLength(length)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(metadata.getEtag());
+        if (cached != null && imageCacheService.sendFile(cached, offset, length, request)) {
+            return builder.build();
+        }
+        Long rangeLength = offset == 0 && length == metadata.getSize() ? null : length;
+        return builder.body(out -> imageCacheService.write(cached, metadata.getFileName(), offset, rangeLength, out));
+    }
 
-        return ResponseEntity.ok()
-                .header("Content-Type", "image/jpeg")
-                .body(image);
+    @PostMapping("/{id}/image/upload-url")
+    public ResponseEntity<PresignedUrlDto> imageUploadUrl(@PathVariable UUID id,
+                                                          @RequestParam String extension) {
+        service.getById(id);
+        return ResponseEntity.ok(imagePresignService.presignUpload(extension));
+    }
+
+    @PostMapping("/{id}/image/confirm")
+    public ResponseEntity<StorageObject> confirmImage(@PathVariable UUID id,
+                                                      @RequestBody @Valid ImageConfirmDto dto) {
+        return ResponseEntity.ok(service.attachPhoto(id, dto.getKey()));
+    }
+
+    @GetMapping("/{id}/image/url")
+    public ResponseEntity<PresignedUrlDto> imageDownloadUrl(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Integer w,
+            @RequestParam(required = false) Integer h) {
+        StorageObject object = service.getById(id);
+        if (object.getPhotoUrl() == null) {
+            throw new NotFoundException("Object has no image");
+        }
+
+        String fileName = w != null || h != null
+                ? imageRenditionService.getRendition(object.getPhotoUrl(), w, h)
+                : object.getPhotoUrl();
+        return ResponseEntity.ok(imagePresignService.presignDownload(fileName));
     }
 
     @GetMapping("/{id}")
@@ -80,4 +203,18 @@ public class StorageObjectController {
         service.delete(id);
         return new ResponseEntity<>(HttpStatus.valueOf(204));
     }
+
+    private MediaType contentType(ImageMetadata metadata) {
+        try {
+            return MediaType.parseMediaType(metadata.getContentType());
+        } catch (Exception e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> notSatisfiable(long size) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                .build();
+    }
 }
@@ -0,0 +1,13 @@
+package com.storage.model.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+@Data
+@AllArgsConstructor
+public class CachedImage {
+    private ImageMetadata metadata;
+    private Path path;
+}
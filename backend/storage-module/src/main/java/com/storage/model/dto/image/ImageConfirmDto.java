@@ -0,0 +1,17 @@
+package com.storage.model.dto.image;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageConfirmDto {
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z0-9-]+\\.[a-zA-Z0-9]+$", message = "Invalid image key")
+    private String key;
+}
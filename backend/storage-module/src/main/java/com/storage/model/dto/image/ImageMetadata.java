@@ -0,0 +1,15 @@
+package com.storage.model.dto.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ImageMetadata {
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String etag;
+}
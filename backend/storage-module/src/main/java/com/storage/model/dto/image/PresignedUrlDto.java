@@ -0,0 +1,19 @@
+package com.storage.model.dto.image;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class PresignedUrlDto {
+    private String key;
+    private String url;
+
+    @JsonProperty("expires_at")
+    private Instant expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.storage.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+
+@Entity
+@Table(name = "image_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageBlob {
+    @Id
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Timestamp updatedAt;
+}
@@ -10,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.persistence.Id;
 
+import java.sql.Timestamp;
 import java.util.UUID;
 
 @Entity
@@ -38,4 +39,11 @@ public class Storage {
     private UUID createdBy;
     @Column(name = "is_deleted")
     private boolean isDeleted = false;
+
+    // прогноз заполнения, приходит из notification-module через топик storage-forecast
+    @Column(name = "fill_rate_per_hour")
+    private Double fillRatePerHour;
+
+    @Column(name = "estimated_full_at")
+    private Timestamp estimatedFullAt;
 }
@@ -0,0 +1,61 @@
+package com.storage.repository;
+
+import com.storage.model.entity.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO image_blob (file_name, ref_count, updated_at)
+            VALUES (:file_name, 1, now())
+            ON CONFLICT (file_name) DO UPDATE
+            SET ref_count = image_blob.ref_count + 1, updated_at = now()
+            """, nativeQuery = true)
+    void retain(@Param("file_name") String fileName);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE image_blob SET ref_count = ref_count - 1, updated_at = now()
+            WHERE file_name = :file_name AND ref_count > 0
+            """, nativeQuery = true)
+    void release(@Param("file_name") String fileName);
+
+    // отмечает, что объект только что понадобился, не меняя счётчик; фиксируется сразу, а не вместе
+    // с транзакцией вызывающего, иначе сборщик мусора не увидит отметку до её коммита
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+            INSERT INTO image_blob (file_name, ref_count, updated_at)
+            VALUES (:file_name, 0, now())
+            ON CONFLICT (file_name) DO UPDATE SET updated_at = now()
+            """, nativeQuery = true)
+    void touch(@Param("file_name") String fileName);
+
+    @Query(value = """
+            SELECT file_name FROM image_blob
+            WHERE file_name IN (:file_names) AND (ref_count > 0 OR updated_at > :since)
+            """, nativeQuery = true)
+    List<String> findInUse(@Param("file_names") Collection<String> fileNames, @Param("since") Timestamp since);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM image_blob
+            WHERE file_name IN (:file_names) AND ref_count = 0 AND updated_at <= :since
+            """, nativeQuery = true)
+    void deleteUnused(@Param("file_names") Collection<String> fileNames, @Param("since") Timestamp since);
+}
@@ -1,12 +1,14 @@
 package com.storage.repository;
 
 import com.storage.model.entity.StorageObject;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +17,8 @@ import java.util.UUID;
 public interface StorageObjectRepository extends JpaRepository<StorageObject, UUID> {
     List<StorageObject> findByStorageId(UUID storageId);
 
+    List<StorageObject> findByStorageId(UUID storageId, Limit limit);
+
     List<StorageObject> findByTemplateId(UUID templateId);
 
     List<StorageObject> findByUnitId(UUID unitId);
@@ -28,6 +32,24 @@ public interface StorageObjectRepository extends JpaRepository<StorageObject, UU
 
     boolean existsByStorageIdAndDecommissionedFalse(UUID id);
 
+    // порядок COLLATE "C" совпадает с побайтовым порядком листинга MinIO
+    @Query(value = """
+            SELECT DISTINCT photo_url COLLATE "C" AS url FROM storage_object
+            WHERE photo_url IS NOT NULL AND photo_url COLLATE "C" > :after
+            ORDER BY url
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findPhotoUrlsAfter(@Param("after") String after, @Param("limit") int limit);
+
+    @Query("select distinct o.photoUrl from StorageObject o where o.photoUrl in :urls")
+    List<String> findReferencedPhotoUrls(@Param("urls") Collection<String> urls);
+
+    @Query(value = """
+            SELECT DISTINCT split_part(photo_url, '.', 1) FROM storage_object
+            WHERE split_part(photo_url, '.', 1) IN (:bases)
+            """, nativeQuery = true)
+    List<String> findReferencedPhotoBases(@Param("bases") Collection<String> bases);
+
     @Modifying
     @Query("UPDATE StorageObject o SET o.decommissioned = true WHERE o.storageId = :storage_id")
     void markAsDecommissionedByStorageId(@Param("storage_id") UUID storageId);
@@ -4,10 +4,13 @@ import com.storage.model.entity.Storage;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,7 +22,9 @@ public interface StorageRepository extends JpaRepository<Storage, UUID> {
     List<Storage> findByUnitId(UUID unitId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select s from Storage s where s.id = :id")
+    @Query("select s from Storage s " +
+            "where s.id = :id " +
+            "and (s.fillRatePerHour is distinct from :fill_rate or s.estimatedFullAt is distinct from :full_at)")
     Optional<Storage> findByIdForUpdate(@Param("id") UUID id);
 
     List<Storage> findByIsDeletedFalse();
@@ -29,4 +34,15 @@ public interface StorageRepository extends JpaRepository<Storage, UUID> {
     Optional<Storage> findByIdAndIsDeletedFalse(UUID id);
 
     boolean existsByParentIdAndIsDeletedFalse(UUID parentId);
+
+    // точечный update двух колонок вместо save() всей сущности; строка блокируется только на время
+    // оператора, а при неизменившемся прогнозе не трогается вовсе
+    @Transactional
+    @Modifying
+    @Query("update Storage s set s.fillRatePerHour = :fill_rate, s.estimatedFullAt = :full_at " +
+            "where s.id = :id " +
+            "and (s.fillRatePerHour is distinct from :fill_rate or s.estimatedFullAt is distinct from :full_at)")
+    int updateForecast(@Param("id") UUID id,
+                       @Param("fill_rate") Double fillRatePerHour,
+                       @Param("full_at") Timestamp estimatedFullAt);
 }
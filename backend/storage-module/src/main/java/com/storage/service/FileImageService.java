@@ -1,13 +1,30 @@
 package com.storage.service;
 
+import com.storage.model.dto.image.ImageMetadata;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
+
 public interface FileImageService {
+    // временные части многочастной загрузки; в корне бакета лежат только готовые фото
+    String UPLOAD_PART_PREFIX = "parts/";
 
     String upload(MultipartFile file);
 
-    byte[] getObject(String fileName);
+    void save(String fileName, byte[] data, String contentType);
+
+    ImageMetadata stat(String fileName);
+
+    InputStream getObject(String fileName, long offset, Long length);
 
     boolean exists(String photoUrl);
 
+    Set<String> findMissing(Collection<String> fileNames);
+
+    void retain(String fileName);
+
+    void release(String fileName);
+
 }
@@ -0,0 +1,21 @@
+package com.storage.service;
+
+import com.storage.model.dto.image.CachedImage;
+import com.storage.model.dto.image.ImageMetadata;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
+public interface ImageCacheService {
+
+    CachedImage get(String fileName);
+
+    CompletableFuture<CachedImage> load(ImageMetadata metadata);
+
+    boolean sendFile(CachedImage cached, long offset, long length, HttpServletRequest request);
+
+    void write(CachedImage cached, String fileName, long offset, Long length, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,250 @@
+package com.storage.service;
+
+import com.storage.repository.ImageBlobRepository;
+import com.storage.repository.StorageObjectRepository;
+import com.storage.service.props.ImageGcProperties;
+import com.storage.service.props.MinioProperties;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.storage.service.FileImageService.UPLOAD_PART_PREFIX;
+import static com.storage.service.ImageRenditionService.RENDITION_PREFIX;
+
+// Удаляет из бакета объекты, на которые не ссылается ни один storage_object.photo_url и которые
+// в image_blob не удерживаются счётчиком и давно не трогались:
+// фото от упавших createWithFile/updateWithFile, заменённые фото и их миниатюры. Части многочастной
+// загрузки лежат под своим префиксом и со ссылками не сверяются: старше grace period — значит, брошены
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageGarbageCollector {
+    private final MinioClient minioClient;
+    private final MinioProperties minioProperties;
+    private final StorageObjectRepository objectRepo;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageGcProperties properties;
+
+    @Scheduled(fixedDelayString = "${image.gc.interval:PT6H}", initialDelayString = "${image.gc.initial-delay:PT10M}")
+    public void collect() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            ZonedDateTime cutoff = ZonedDateTime.now().minus(properties.getGracePeriod());
+            int removed = collectOriginals(cutoff) + collectRenditions(cutoff) + collectUploadParts(cutoff);
+            log.info("Image GC finished, {} orphaned objects removed", removed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Image GC failed", e);
+        }
+    }
+
+    // листинг бакета и photo_url идут в одном порядке, поэтому сравниваем их слиянием,
+    // не держа множество ссылок в памяти; следующая страница из БД грузится параллельно с листингом
+    private int collectOriginals(ZonedDateTime cutoff) throws Exception {
+        Iterator<String> references = new ReferencePager();
+        String reference = references.hasNext() ? references.next() : null;
+        List<String> orphans = new ArrayList<>();
+        int removed = 0;
+        int scanned = 0;
+
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucket())
+                .recursive(false)
+                .build())) {
+            Item item = result.get();
+            if (item.isDir()) {
+                continue;
+            }
+            String key = item.objectName();
+            while (reference != null && reference.compareTo(key) < 0) {
+                reference = references.hasNext() ? references.next() : null;
+            }
+            if (!key.equals(reference) && item.lastModified().isBefore(cutoff)) {
+                orphans.add(key);
+            }
+
+            if (orphans.size() >= properties.getBatchSize()) {
+                removed += removeOriginals(orphans, cutoff);
+                orphans.clear();
+            }
+            if (++scanned % properties.getBatchSize() == 0) {
+                pace(properties.getBatchSize());
+            }
+        }
+        return removed + removeOriginals(orphans, cutoff);
+    }
+
+    // миниатюра — сирота, если на её исходник (по имени без расширения) никто не ссылается
+    private int collectRenditions(ZonedDateTime cutoff) throws Exception {
+        List<String> page = new ArrayList<>();
+        int removed = 0;
+
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucket())
+                .prefix(RENDITION_PREFIX)
+                .recursive(true)
+                .build())) {
+            Item item = result.get();
+            if (item.lastModified().isBefore(cutoff)) {
+                page.add(item.objectName());
+            }
+            if (page.size() >= properties.getBatchSize()) {
+                removed += remove(page, this::referencedRenditions);
+                page.clear();
+                pace(properties.getBatchSize());
+            }
+        }
+        return removed + remove(page, this::referencedRenditions);
+    }
+
+    private int collectUploadParts(ZonedDateTime cutoff) throws Exception {
+        List<String> page = new ArrayList<>();
+        int removed = 0;
+
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucket())
+                .prefix(UPLOAD_PART_PREFIX)
+                .recursive(true)
+                .build())) {
+            Item item = result.get();
+            if (item.lastModified().isBefore(cutoff)) {
+                page.add(item.objectName());
+            }
+            if (page.size() >= properties.getBatchSize()) {
+                removed += remove(page, keys -> List.of());
+                page.clear();
+                pace(properties.getBatchSize());
+            }
+        }
+        return removed + remove(page, keys -> List.of());
+    }
+
+    // дедуплицированная загрузка не пишет объект заново, а только обновляет updated_at в image_blob
+    // в своей транзакции, поэтому свежий updated_at защищает объект так же, как ссылка. Счётчик и
+    // отметка проверяются прямо перед удалением каждого ключа, а не один раз на пачку
+    private int removeOriginals(List<String> candidates, ZonedDateTime cutoff) throws InterruptedException {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>(objectRepo.findReferencedPhotoUrls(candidates));
+        Timestamp since = Timestamp.from(cutoff.toInstant());
+        List<String> removed = new ArrayList<>();
+        for (String key : candidates) {
+            if (referenced.contains(key) || !imageBlobRepository.findInUse(List.of(key), since).isEmpty()) {
+                continue;
+            }
+            try {
+                minioClient.removeObject(RemoveObjectArgs.builder()
+                        .bucket(minioProperties.getBucket())
+                        .object(key)
+                        .build());
+                removed.add(key);
+            } catch (Exception e) {
+                log.warn("Image GC failed to remove {}", key, e);
+            }
+        }
+        if (!removed.isEmpty()) {
+            // строку, которую успели тронуть после проверки, не удаляем
+            imageBlobRepository.deleteUnused(removed, since);
+        }
+
+        pace(removed.size());
+        return removed.size();
+    }
+
+    private List<String> referencedRenditions(Collection<String> keys) {
+        Set<String> bases = new HashSet<>(objectRepo.findReferencedPhotoBases(
+                keys.stream().map(this::baseName).toList()));
+        return keys.stream().filter(key -> bases.contains(baseName(key))).toList();
+    }
+
+    private String baseName(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        return dot >= 0 ? name.substring(0, dot) : name;
+    }
+
+    // перед удалением ещё раз сверяемся с БД: ссылка могла появиться, пока шёл листинг
+    private int remove(List<String> candidates, ReferenceLookup lookup) throws InterruptedException {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = new HashSet<>(lookup.find(candidates));
+        List<String> orphans = candidates.stream().filter(key -> !referenced.contains(key)).toList();
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+
+        Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(minioProperties.getBucket())
+                .objects(orphans.stream().map(DeleteObject::new).toList())
+                .build());
+        // удаление ленивое и выполняется при обходе результатов
+        int failed = 0;
+        for (Result<DeleteError> result : results) {
+            failed++;
+            try {
+                DeleteError error = result.get();
+                log.warn("Image GC failed to remove {}: {}", error.objectName(), error.message());
+            } catch (Exception e) {
+                log.warn("Image GC failed to remove objects", e);
+            }
+        }
+
+        pace(orphans.size());
+        return orphans.size() - failed;
+    }
+
+    private void pace(int objects) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(objects * 1000L / Math.max(1, properties.getObjectsPerSecond()));
+    }
+
+    private interface ReferenceLookup {
+        List<String> find(Collection<String> keys);
+    }
+
+    private class ReferencePager implements Iterator<String> {
+        private Iterator<String> current = Collections.emptyIterator();
+        private CompletableFuture<List<String>> next = fetch("");
+
+        private CompletableFuture<List<String>> fetch(String after) {
+            return CompletableFuture.supplyAsync(() -> objectRepo.findPhotoUrlsAfter(after, properties.getBatchSize()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!current.hasNext() && next != null) {
+                List<String> page = next.join();
+                next = page.size() < properties.getBatchSize() ? null : fetch(page.get(page.size() - 1));
+                current = page.iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
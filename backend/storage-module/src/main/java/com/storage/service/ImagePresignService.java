@@ -0,0 +1,11 @@
+package com.storage.service;
+
+import com.storage.model.dto.image.PresignedUrlDto;
+
+public interface ImagePresignService {
+
+    PresignedUrlDto presignUpload(String extension);
+
+    PresignedUrlDto presignDownload(String fileName);
+
+}
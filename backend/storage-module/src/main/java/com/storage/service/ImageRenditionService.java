@@ -0,0 +1,9 @@
+package com.storage.service;
+
+public interface ImageRenditionService {
+
+    String RENDITION_PREFIX = "renditions/";
+
+    String getRendition(String fileName, Integer width, Integer height);
+
+}
@@ -0,0 +1,38 @@
+package com.storage.service;
+
+import com.storage.model.notification.ReferenceDataChanged;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+// сообщает gateway, что справочники поменялись и закэшированные ответы пора выбросить
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataPublisher {
+    public static final String TOPIC = "reference-data";
+    public static final String UNITS = "units";
+    public static final String TEMPLATES = "templates";
+
+    private final KafkaTemplate<String, ReferenceDataChanged> kafkaTemplate;
+
+    public void changed(String resource, UUID id) {
+        ReferenceDataChanged event = ReferenceDataChanged.builder()
+                .resource(resource)
+                .id(id)
+                .build();
+        try {
+            kafkaTemplate.send(TOPIC, resource, event).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Failed to send {} change to Kafka: {}", resource, ex.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            // кэш в gateway всё равно истечёт по TTL, изменение справочника из-за этого не откатываем
+            log.warn("Kafka send error: {}", e.getMessage());
+        }
+    }
+}
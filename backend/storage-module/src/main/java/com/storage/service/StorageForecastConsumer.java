@@ -0,0 +1,23 @@
+package com.storage.service;
+
+import com.storage.model.notification.StorageForecastData;
+import com.storage.repository.StorageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+
+@Service
+@RequiredArgsConstructor
+public class StorageForecastConsumer {
+
+    private final StorageRepository storageRepository;
+
+    @KafkaListener(topics = "storage-forecast", groupId = "storage-module")
+    public void onMessage(StorageForecastData event) {
+        storageRepository.updateForecast(event.getStorageId(),
+                event.getFillRatePerHour(),
+                event.getEstimatedFullAt() != null ? Timestamp.from(event.getEstimatedFullAt()) : null);
+    }
+}
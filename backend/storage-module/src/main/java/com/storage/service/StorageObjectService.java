@@ -8,17 +8,24 @@ import com.storage.model.entity.Storage;
 import com.storage.model.entity.StorageObject;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface StorageObjectService {
     List<StorageObject> find(UUID storageId, UUID templateId, Boolean decommissioned);
 
+    List<StorageObject> findByStorage(UUID storageId, int limit);
+
     StorageObject getById(UUID id);
 
+    List<StorageObject> findAllById(Collection<UUID> ids);
+
     @Transactional
     StorageObject create(StorageObjectCreate dto);
 
+    List<StorageObject> createAll(List<StorageObjectCreate> dtos);
+
     @Transactional
     StorageObject createWithFile(StorageObjectCreateWithFileDto createWithFileDto);
 
@@ -28,6 +35,9 @@ public interface StorageObjectService {
     @Transactional
     StorageObject updateWithFile(UUID id, StorageObjectUpdateWithFileDto updateWithFileDto);
 
+    @Transactional
+    StorageObject attachPhoto(UUID id, String fileName);
+
     @Transactional
     void delete(UUID id);
 
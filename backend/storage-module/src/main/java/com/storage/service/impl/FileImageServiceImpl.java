@@ -1,53 +1,159 @@
 package com.storage.service.impl;
 
 import com.storage.exception.ImageUploadException;
+import com.storage.exception.NotFoundException;
+import com.storage.model.dto.image.ImageMetadata;
+import com.storage.repository.ImageBlobRepository;
 import com.storage.service.FileImageService;
 import com.storage.service.props.MinioProperties;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileImageServiceImpl implements FileImageService {
+    // минимальный размер части для composeObject, кроме последней
+    private static final long MIN_PART_SIZE = 5 * 1024 * 1024;
 
     private final MinioClient minioClient;
     private final MinioProperties minioProperties;
+    private final ImageBlobRepository imageBlobRepository;
 
+    private final LinkedHashMap<String, Long> existing = new LinkedHashMap<>(16, 0.75f, true);
+    private ExecutorService partUploaders;
+    private ExecutorService statWorkers;
+
+    @PostConstruct
+    public void start() {
+        partUploaders = newPool("minio-upload-", minioProperties.getUploadThreads());
+        statWorkers = newPool("minio-stat-", minioProperties.getStatThreads());
+    }
+
+    @PreDestroy
+    public void stop() {
+        partUploaders.shutdownNow();
+        statWorkers.shutdownNow();
+    }
+
+    private ExecutorService newPool(String name, int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // бакет проверяется один раз при старте, а не на каждую загрузку
+    @EventListener(ApplicationReadyEvent.class)
+    public void initBucket() {
+        createBucket();
+    }
+
+    // ключ объекта — SHA-256 содержимого, одинаковые фото хранятся один раз
     @Override
     public String upload(MultipartFile file) {
         try {
-            createBucket();
+            String fileName = generateFileName(file);
+            // отметка ставится до проверки, чтобы сборщик мусора, начавший удаление позже, уже её увидел
+            imageBlobRepository.touch(fileName);
+            // здесь кэшу не верим: сборщик мог удалить объект уже после того, как он туда попал
+            if (isStored(fileName)) {
+                return fileName;
+            }
+
+            if (file.getSize() > Math.max(minioProperties.getPartSize(), MIN_PART_SIZE)) {
+                saveImageInParts(file, fileName);
+            } else {
+                saveImage(file, fileName);
+            }
+            remember(fileName);
+            return fileName;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageUploadException("Image upload failed" + e.getMessage());
         } catch (Exception e) {
             throw new ImageUploadException("Image upload failed" + e.getMessage());
         }
+    }
 
-        String fileName = generateFileName(file);
-        InputStream inputStream = null;
-
+    @Override
+    public void save(String fileName, byte[] data, String contentType) {
         try {
-            inputStream = file.getInputStream();
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(minioProperties.getBucket())
+                    .object(fileName)
+                    .stream(new ByteArrayInputStream(data), data.length, -1)
+                    .contentType(contentType)
+                    .build());
         } catch (Exception e) {
             throw new ImageUploadException("Image upload failed" + e.getMessage());
         }
+    }
 
-        saveImage(inputStream, fileName);
-        return fileName;
+    @Override
+    public ImageMetadata stat(String fileName) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(minioProperties.getBucket())
+                            .object(fileName)
+                            .build());
+            return ImageMetadata.builder()
+                    .fileName(fileName)
+                    .contentType(stat.contentType())
+                    .size(stat.size())
+                    .etag(stat.etag())
+                    .build();
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new NotFoundException("Image not found: " + fileName);
+            }
+            throw new RuntimeException("Failed to get image from MinIO", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get image from MinIO", e);
+        }
     }
 
+    // поток отдаётся как есть, без буферизации всего объекта в памяти; закрывает вызывающий
     @Override
-    public byte[] getObject(String fileName) {
-        try (InputStream stream = minioClient.getObject(
-                GetObjectArgs.builder()
-                        .bucket(minioProperties.getBucket())
-                        .object(fileName)
-                        .build())) {
-            return stream.readAllBytes();
+    public InputStream getObject(String fileName, long offset, Long length) {
+        try {
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(minioProperties.getBucket())
+                    .object(fileName);
+            if (offset > 0) {
+                args.offset(offset);
+            }
+            if (length != null) {
+                args.length(length);
+            }
+            return minioClient.getObject(args.build());
         } catch (Exception e) {
             throw new RuntimeException("Failed to get image from MinIO", e);
         }
@@ -55,6 +161,10 @@ public class FileImageServiceImpl implements FileImageService {
 
     @Override
     public boolean exists(String fileName) {
+        return isKnown(fileName) || isStored(fileName);
+    }
+
+    private boolean isStored(String fileName) {
         try {
             minioClient.statObject(
                     StatObjectArgs.builder()
@@ -62,12 +172,63 @@ public class FileImageServiceImpl implements FileImageService {
                             .object(fileName)
                             .build()
             );
+            remember(fileName);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
+    // проверки идут параллельно, так что пачка ссылок стоит примерно одного round trip
+    @Override
+    public Set<String> findMissing(Collection<String> fileNames) {
+        List<CompletableFuture<String>> checks = fileNames.stream()
+                .distinct()
+                .map(fileName -> CompletableFuture.supplyAsync(
+                        () -> exists(fileName) ? null : fileName, statWorkers))
+                .toList();
+        return checks.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private boolean isKnown(String fileName) {
+        synchronized (existing) {
+            Long checkedAt = existing.get(fileName);
+            if (checkedAt == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - checkedAt > minioProperties.getExistsCacheTtl().toMillis()) {
+                existing.remove(fileName);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void remember(String fileName) {
+        synchronized (existing) {
+            existing.put(fileName, System.currentTimeMillis());
+            Iterator<String> eldest = existing.keySet().iterator();
+            while (existing.size() > minioProperties.getExistsCacheSize() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    @Override
+    public void retain(String fileName) {
+        imageBlobRepository.retain(fileName);
+    }
+
+    // объект с нулевым счётчиком не удаляется сразу, его заберёт ImageGarbageCollector:
+    // параллельная загрузка того же фото могла уже увидеть его и пропустить запись
+    @Override
+    public void release(String fileName) {
+        imageBlobRepository.release(fileName);
+    }
 
     @SneakyThrows
     private void createBucket() {
@@ -81,8 +242,14 @@ public class FileImageServiceImpl implements FileImageService {
         }
     }
 
-    private String generateFileName(MultipartFile file) {
-        return UUID.randomUUID() + "." + getExtention(file);
+    // часть уже лежит на диске (file-size-threshold: 0), поэтому отдельный проход для хэша дешевле,
+    // чем лить в MinIO байты, которые там уже есть
+    private String generateFileName(MultipartFile file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest()) + "." + getExtention(file).toLowerCase();
     }
 
     private String getExtention(MultipartFile file) {
@@ -90,12 +257,97 @@ public class FileImageServiceImpl implements FileImageService {
                 .substring(file.getOriginalFilename().lastIndexOf(".") + 1);
     }
 
+    private void saveImage(MultipartFile file, String fileName) throws Exception {
+        try (InputStream inputStream = file.getInputStream()) {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(minioProperties.getBucket())
+                    .object(fileName)
+                    .stream(inputStream, file.getSize(), -1)
+                    .contentType(getContentType(file))
+                    .build());
+        }
+    }
+
+    // части читаются из потока последовательно, а в MinIO уходят параллельно временными объектами,
+    // после чего склеиваются composeObject на стороне сервера
+    private void saveImageInParts(MultipartFile file, String fileName) throws Exception {
+        long partSize = Math.max(minioProperties.getPartSize(), MIN_PART_SIZE);
+        Semaphore inFlight = new Semaphore(minioProperties.getUploadThreads());
+        List<String> parts = new ArrayList<>();
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        // одновременные загрузки одного фото получают одинаковый fileName, части у каждой свои
+        String partPrefix = UPLOAD_PART_PREFIX + fileName + "." + UUID.randomUUID() + ".part";
+
+        try {
+            try (InputStream inputStream = file.getInputStream()) {
+                long remaining = file.getSize();
+                while (remaining > 0 && uploads.stream().noneMatch(CompletableFuture::isCompletedExceptionally)) {
+                    inFlight.acquire();
+                    byte[] chunk = inputStream.readNBytes((int) Math.min(partSize, remaining));
+                    if (chunk.length == 0) {
+                        inFlight.release();
+                        break;
+                    }
+                    remaining -= chunk.length;
+
+                    String part = partPrefix + parts.size();
+                    parts.add(part);
+                    uploads.add(CompletableFuture
+                            .runAsync(() -> savePart(part, chunk), partUploaders)
+                            .whenComplete((result, e) -> inFlight.release()));
+                }
+            }
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+
+            List<ComposeSource> sources = parts.stream()
+                    .map(part -> ComposeSource.builder()
+                            .bucket(minioProperties.getBucket())
+                            .object(part)
+                            .build())
+                    .toList();
+            minioClient.composeObject(ComposeObjectArgs.builder()
+                    .bucket(minioProperties.getBucket())
+                    .object(fileName)
+                    .sources(sources)
+                    .headers(Map.of("Content-Type", getContentType(file)))
+                    .build());
+        } finally {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                    .exceptionally(e -> null)
+                    .join();
+            removeParts(parts);
+        }
+    }
+
     @SneakyThrows
-    private void saveImage(InputStream inputStream, String fileName) {
+    private void savePart(String part, byte[] chunk) {
         minioClient.putObject(PutObjectArgs.builder()
                 .bucket(minioProperties.getBucket())
-                .stream(inputStream, inputStream.available(), -1)
-                .object(fileName)
+                .object(part)
+                .stream(new ByteArrayInputStream(chunk), chunk.length, -1)
                 .build());
     }
+
+    private void removeParts(List<String> parts) {
+        if (parts.isEmpty()) {
+            return;
+        }
+        try {
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                    .bucket(minioProperties.getBucket())
+                    .objects(parts.stream().map(DeleteObject::new).toList())
+                    .build());
+            // удаление ленивое и выполняется при обходе результатов
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                log.warn("Failed to remove upload part {}: {}", error.objectName(), error.message());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to remove upload parts of {}", parts.get(0), e);
+        }
+    }
+
+    private String getContentType(MultipartFile file) {
+        return file.getContentType() != null ? file.getContentType() : "application/octet-stream";
+    }
 }
@@ -0,0 +1,236 @@
+package com.storage.service.impl;
+
+import com.storage.model.dto.image.CachedImage;
+import com.storage.model.dto.image.ImageMetadata;
+import com.storage.service.FileImageService;
+import com.storage.service.ImageCacheService;
+import com.storage.service.props.ImageCacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageCacheServiceImpl implements ImageCacheService {
+    // атрибуты запроса, по которым Tomcat сам отдаёт файл через sendfile после коммита ответа
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // вытесненный файл мог быть только что отдан Tomcat'у на sendfile, поэтому удаляется с задержкой
+    private static final long RETIRE_DELAY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final FileImageService fileImageService;
+    private final ImageCacheProperties properties;
+
+    // ключи неизменяемые (хэш содержимого или UUID), поэтому инвалидация не нужна — только вытеснение
+    private final LinkedHashMap<String, CachedImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedImage>> loading = new ConcurrentHashMap<>();
+    private final Deque<Retired> retired = new ArrayDeque<>();
+    private long totalBytes;
+    private Path directory;
+    private ExecutorService loaders;
+
+    // метаданные живут только в памяти, поэтому файлы прошлого запуска удаляем
+    @PostConstruct
+    public void start() throws IOException {
+        directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::deleteQuietly);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        loaders = new ThreadPoolExecutor(properties.getLoaders(), properties.getLoaders(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getLoadQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-cache-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        loaders.shutdownNow();
+    }
+
+    @Override
+    public CachedImage get(String fileName) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        synchronized (entries) {
+            return entries.get(fileName);
+        }
+    }
+
+    // промах не держит поток запроса: файл докачивается в фоне, а этот запрос идёт в MinIO сам.
+    // Размер уже известен из stat вызывающего, повторно объект не запрашиваем
+    @Override
+    public CompletableFuture<CachedImage> load(ImageMetadata metadata) {
+        String fileName = metadata.getFileName();
+        if (!properties.isEnabled() || metadata.getSize() > properties.getMaxEntryBytes()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CachedImage cached = get(fileName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // одновременные промахи по одному ключу ждут одну загрузку
+        CompletableFuture<CachedImage> created = new CompletableFuture<>();
+        CompletableFuture<CachedImage> existing = loading.putIfAbsent(fileName, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            loaders.execute(() -> {
+                try {
+                    created.complete(download(metadata));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to cache image {}", fileName, e);
+                    created.completeExceptionally(e);
+                } finally {
+                    loading.remove(fileName, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // очередь загрузок полна: кэш — оптимизация, запрос обслужится и без него
+            loading.remove(fileName, created);
+            created.complete(null);
+        }
+        return created;
+    }
+
+    // Tomcat сам отправляет файл из page cache в сокет, тело в JVM не читается. Вызывающий после этого
+    // не пишет тело, а только заголовки; без поддержки sendfile (например, TLS без APR) возвращает false
+    @Override
+    public boolean sendFile(CachedImage cached, long offset, long length, HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || !Files.exists(cached.getPath())) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, cached.getPath().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, offset);
+        request.setAttribute(SENDFILE_END, offset + length);
+        return true;
+    }
+
+    // запасной путь, когда sendfile недоступен: канал поверх OutputStream сервлета не файловый,
+    // поэтому transferTo копирует через свой буфер. Если файл успели вытеснить до открытия, читаем из MinIO
+    @Override
+    public void write(CachedImage cached, String fileName, long offset, Long length, OutputStream out)
+            throws IOException {
+        if (cached == null) {
+            copy(fileName, offset, length, out);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(cached.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long remaining = length != null ? length : channel.size() - offset;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } catch (NoSuchFileException e) {
+            copy(fileName, offset, length, out);
+        }
+    }
+
+    private void copy(String fileName, long offset, Long length, OutputStream out) throws IOException {
+        try (InputStream in = fileImageService.getObject(fileName, offset, length)) {
+            in.transferTo(out);
+        }
+    }
+
+    private CachedImage download(ImageMetadata metadata) {
+        String fileName = metadata.getFileName();
+        Path target = directory.resolve(URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+        try {
+            Path temp = Files.createTempFile(directory, "download-", ".tmp");
+            try (InputStream in = fileImageService.getObject(fileName, 0, null)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache image " + fileName, e);
+        }
+
+        CachedImage image = new CachedImage(metadata, target);
+        register(fileName, image);
+        return image;
+    }
+
+    private void register(String fileName, CachedImage image) {
+        synchronized (entries) {
+            CachedImage previous = entries.put(fileName, image);
+            if (previous != null) {
+                totalBytes -= previous.getMetadata().getSize();
+            }
+            totalBytes += image.getMetadata().getSize();
+
+            long now = System.nanoTime();
+            Iterator<Map.Entry<String, CachedImage>> iterator = entries.entrySet().iterator();
+            while (totalBytes > properties.getMaxBytes() && iterator.hasNext()) {
+                Map.Entry<String, CachedImage> eldest = iterator.next();
+                if (eldest.getKey().equals(fileName)) {
+                    continue;
+                }
+                iterator.remove();
+                totalBytes -= eldest.getValue().getMetadata().getSize();
+                retired.add(new Retired(eldest.getValue().getPath(), now));
+            }
+            while (!retired.isEmpty() && now - retired.peek().retiredAt > RETIRE_DELAY_NANOS) {
+                deleteQuietly(retired.poll().path);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached image {}", path, e);
+        }
+    }
+
+    private static class Retired {
+        private final Path path;
+        private final long retiredAt;
+
+        private Retired(Path path, long retiredAt) {
+            this.path = path;
+            this.retiredAt = retiredAt;
+        }
+    }
+}
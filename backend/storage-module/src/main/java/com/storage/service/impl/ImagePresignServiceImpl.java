@@ -0,0 +1,73 @@
+package com.storage.service.impl;
+
+import com.storage.exception.NotValidException;
+import com.storage.model.dto.image.PresignedUrlDto;
+import com.storage.service.ImagePresignService;
+import com.storage.service.props.MinioProperties;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class ImagePresignServiceImpl implements ImagePresignService {
+    private static final Pattern EXTENSION = Pattern.compile("^[a-zA-Z0-9]{1,10}$");
+
+    private final MinioProperties minioProperties;
+
+    // подпись включает host, поэтому нужен отдельный клиент на внешний адрес; регион задан явно,
+    // чтобы клиент не ходил за ним по адресу, недоступному изнутри сети
+    private MinioClient presignClient;
+
+    @PostConstruct
+    public void start() {
+        String endpoint = minioProperties.getExternalUrl() != null
+                ? minioProperties.getExternalUrl()
+                : minioProperties.getUrl();
+        presignClient = MinioClient.builder()
+                .endpoint(endpoint)
+                .region(minioProperties.getRegion())
+                .credentials(minioProperties.getAccessKey(), minioProperties.getSecretKey())
+                .build();
+    }
+
+    // содержимое прямой загрузки заранее неизвестно, поэтому ключ случайный, а не хэш
+    @Override
+    public PresignedUrlDto presignUpload(String extension) {
+        if (extension == null || !EXTENSION.matcher(extension).matches()) {
+            throw new NotValidException("Invalid image extension");
+        }
+        return presign(Method.PUT, UUID.randomUUID() + "." + extension.toLowerCase());
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String fileName) {
+        return presign(Method.GET, fileName);
+    }
+
+    private PresignedUrlDto presign(Method method, String fileName) {
+        int expiry = (int) minioProperties.getPresignExpiry().toSeconds();
+        try {
+            String url = presignClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(minioProperties.getBucket())
+                    .object(fileName)
+                    .expiry(expiry)
+                    .build());
+            return PresignedUrlDto.builder()
+                    .key(fileName)
+                    .url(url)
+                    .expiresAt(Instant.now().plusSeconds(expiry))
+                    .build();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to presign image url", e);
+        }
+    }
+}
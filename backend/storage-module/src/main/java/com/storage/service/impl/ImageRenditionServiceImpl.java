@@ -0,0 +1,172 @@
+package com.storage.service.impl;
+
+import com.storage.exception.NotValidException;
+import com.storage.exception.ServiceUnavailableException;
+import com.storage.service.FileImageService;
+import com.storage.service.ImageRenditionService;
+import com.storage.service.props.RenditionProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageRenditionServiceImpl implements ImageRenditionService {
+    private final FileImageService fileImageService;
+    private final RenditionProperties properties;
+
+    // одновременные запросы одной и той же миниатюры ждут одну генерацию
+    private final Map<String, CompletableFuture<String>> inProgress = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public String getRendition(String fileName, Integer width, Integer height) {
+        int w = width != null ? width : 0;
+        int h = height != null ? height : 0;
+        if (w < 0 || h < 0 || w > properties.getMaxWidth() || h > properties.getMaxHeight() || w + h == 0) {
+            throw new NotValidException("Rendition size must be within "
+                    + properties.getMaxWidth() + "x" + properties.getMaxHeight());
+        }
+
+        String key = renditionKey(fileName, w, h);
+        if (fileImageService.exists(key)) {
+            return key;
+        }
+
+        CompletableFuture<String> future;
+        try {
+            future = inProgress.computeIfAbsent(key, k ->
+                    CompletableFuture.supplyAsync(() -> render(fileName, k, w, h), workers));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many renditions in progress, try again later");
+        }
+        future.whenComplete((result, e) -> inProgress.remove(key, future));
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ключ производный от исходного, формат определяется по расширению
+    private String renditionKey(String fileName, int width, int height) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot >= 0 ? fileName.substring(0, dot) : fileName;
+        return RENDITION_PREFIX + width + "x" + height + "/" + base + "." + formatOf(fileName);
+    }
+
+    private String formatOf(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".png") || lower.endsWith(".gif") ? "png" : "jpg";
+    }
+
+    private String render(String fileName, String key, int width, int height) {
+        BufferedImage source;
+        try (InputStream in = fileImageService.getObject(fileName, 0, null)) {
+            source = read(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read image " + fileName, e);
+        }
+
+        String format = formatOf(fileName);
+        BufferedImage scaled = scale(source, width, height, "png".equals(format));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(scaled, format, out);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode rendition " + key, e);
+        }
+        fileImageService.save(key, out.toByteArray(), "png".equals(format) ? "image/png" : "image/jpeg");
+        log.debug("Rendition {} generated, {} bytes", key, out.size());
+        return key;
+    }
+
+    // размеры берутся из заголовка до декодирования, чтобы не выделять память под заведомо огромную картинку
+    private BufferedImage read(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new NotValidException("Object image is not a supported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxSourcePixels()) {
+                    throw new NotValidException("Object image is too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // вписываем в рамку с сохранением пропорций, не увеличиваем; сильное уменьшение
+    // делаем последовательными уполовиниваниями билинейным фильтром — быстро и без ступенек
+    private BufferedImage scale(BufferedImage source, int maxWidth, int maxHeight, boolean alpha) {
+        double ratio = Math.min(
+                maxWidth > 0 ? (double) maxWidth / source.getWidth() : Double.MAX_VALUE,
+                maxHeight > 0 ? (double) maxHeight / source.getHeight() : Double.MAX_VALUE);
+        ratio = Math.min(ratio, 1.0);
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+
+        return current;
+    }
+}
@@ -25,14 +25,14 @@ import com.storage.service.StorageObjectService;
 import com.storage.service.StorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 
 @Log4j2
 @Service
@@ -46,6 +46,7 @@ public class StorageObjectServiceImpl implements StorageObjectService {
     private final StorageService storageService;
     private final KafkaTemplate<String, StorageData> kafkaTemplate;
     private final UserContext userContext;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public List<StorageObject> find(UUID storageId, UUID templateId, Boolean decommissioned) {
@@ -55,28 +56,91 @@ public class StorageObjectServiceImpl implements StorageObjectService {
         return objectRepo.findAll();
     }
 
+    @Override
+    public List<StorageObject> findByStorage(UUID storageId, int limit) {
+        return objectRepo.findByStorageId(storageId, Limit.of(limit));
+    }
+
     @Override
     public StorageObject getById(UUID id) {
         return objectRepo.findById(id).orElseThrow(() -> new NotFoundException("object not found"));
     }
 
+    @Override
+    public List<StorageObject> findAllById(Collection<UUID> ids) {
+        return objectRepo.findAllById(ids);
+    }
+
+    // фото проверяется до блокировки строки хранилища, чтобы задержка MinIO не удлиняла удержание блокировки
     @Transactional
     @Override
     public StorageObject create(StorageObjectCreate dto) {
+        if (dto.getPhotoUrl() != null && !fileImageService.exists(dto.getPhotoUrl())) {
+            throw new NotFoundException("File not found in storage");
+        }
+
         Storage storage = storageRepo.findByIdForUpdate(dto.getStorageId())
                 .orElseThrow(() -> new NotFoundException("Storage not found with id: " + dto.getStorageId()));
 
         double delta = dto.getSize();
         checkAccommodation(storage, dto.getSize(), delta);
 
+        StorageObject obj = buildObject(dto, storage);
+
+        storage.setFullness(storage.getFullness() + obj.getSize());
+        storageRepo.save(storage);
+
+        sendData(storage);
+        return objectRepo.save(obj);
+    }
+
+    // все ссылки на фото проверяются параллельно до открытия транзакции; хранилища блокируются
+    // в порядке id, чтобы встречные пачки не взаимоблокировались
+    @Override
+    public List<StorageObject> createAll(List<StorageObjectCreate> dtos) {
+        Set<String> missing = fileImageService.findMissing(dtos.stream()
+                .map(StorageObjectCreate::getPhotoUrl)
+                .filter(Objects::nonNull)
+                .toList());
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Files not found in storage: " + missing);
+        }
+
+        return transactionTemplate.execute(status -> {
+            Map<UUID, List<Integer>> byStorage = new TreeMap<>();
+            for (int i = 0; i < dtos.size(); i++) {
+                byStorage.computeIfAbsent(dtos.get(i).getStorageId(), id -> new ArrayList<>()).add(i);
+            }
+
+            StorageObject[] created = new StorageObject[dtos.size()];
+            for (Map.Entry<UUID, List<Integer>> entry : byStorage.entrySet()) {
+                Storage storage = storageRepo.findByIdForUpdate(entry.getKey())
+                        .orElseThrow(() -> new NotFoundException("Storage not found with id: " + entry.getKey()));
+
+                double delta = entry.getValue().stream().mapToDouble(i -> dtos.get(i).getSize()).sum();
+                checkAccommodation(storage, delta, delta);
+
+                for (int i : entry.getValue()) {
+                    created[i] = objectRepo.save(buildObject(dtos.get(i), storage));
+                }
+
+                storage.setFullness(storage.getFullness() + delta);
+                storageRepo.save(storage);
+                sendData(storage);
+            }
+            return List.of(created);
+        });
+    }
+
+    private StorageObject buildObject(StorageObjectCreate dto, Storage storage) {
         Unit unit = unitRepo.findById(dto.getUnitId())
                 .orElseThrow(() -> new NotFoundException("Unit not found with id: " + dto.getUnitId()));
 
         Template template = templateRepo.findById(dto.getTemplateId())
                 .orElseThrow(() -> new NotFoundException("Template not found with id: " + dto.getTemplateId()));
 
-        if (dto.getPhotoUrl() != null && !fileImageService.exists(dto.getPhotoUrl())) {
-            throw new NotFoundException("File not found in storage");
+        if (dto.getPhotoUrl() != null) {
+            fileImageService.retain(dto.getPhotoUrl());
         }
 
         UUID currentUserId = userContext.getCurrentUserId();
@@ -99,12 +163,7 @@ public class StorageObjectServiceImpl implements StorageObjectService {
         } catch (Exception ex) {
             throw new NotValidException("Invalid attributes format");
         }
-
-        storage.setFullness(storage.getFullness() + obj.getSize());
-        storageRepo.save(storage);
-
-        sendData(storage);
-        return objectRepo.save(obj);
+        return obj;
     }
 
     @Transactional
@@ -125,6 +184,7 @@ public class StorageObjectServiceImpl implements StorageObjectService {
             throw new ImageUploadException("Image must have name and exist");
         }
         String url = fileImageService.upload(fileName);
+        fileImageService.retain(url);
 
         UUID currentUserId = userContext.getCurrentUserId();
 
@@ -221,6 +281,26 @@ public class StorageObjectServiceImpl implements StorageObjectService {
         return objectRepo.save(obj);
     }
 
+    // ключ загружен клиентом напрямую в MinIO по presigned-ссылке, здесь только проверяем и привязываем
+    @Transactional
+    @Override
+    public StorageObject attachPhoto(UUID id, String fileName) {
+        StorageObject object = getById(id);
+        if (fileName.equals(object.getPhotoUrl())) {
+            return object;
+        }
+        if (!fileImageService.exists(fileName)) {
+            throw new NotFoundException("File not found in storage");
+        }
+
+        fileImageService.retain(fileName);
+        if (object.getPhotoUrl() != null) {
+            fileImageService.release(object.getPhotoUrl());
+        }
+        object.setPhotoUrl(fileName);
+        return objectRepo.save(object);
+    }
+
     @Transactional
     @Override
     public void delete(UUID id) {
@@ -234,6 +314,9 @@ public class StorageObjectServiceImpl implements StorageObjectService {
 
         storageRepo.save(storage);
         objectRepo.deleteById(id);
+        if (object.getPhotoUrl() != null) {
+            fileImageService.release(object.getPhotoUrl());
+        }
         sendData(storage);
     }
 
@@ -264,6 +347,12 @@ public class StorageObjectServiceImpl implements StorageObjectService {
         MultipartFile photo = updateWithFileDto.getPhoto();
         if (photo != null && !photo.isEmpty()) {
             String newFileName = fileImageService.upload(photo);
+            if (!newFileName.equals(updated.getPhotoUrl())) {
+                fileImageService.retain(newFileName);
+                if (updated.getPhotoUrl() != null) {
+                    fileImageService.release(updated.getPhotoUrl());
+                }
+            }
             updated.setPhotoUrl(newFileName);
         }
 
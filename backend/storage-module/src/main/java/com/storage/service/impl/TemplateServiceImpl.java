@@ -5,6 +5,7 @@ import com.storage.model.dto.template.TemplateCreate;
 import com.storage.model.dto.template.TemplateUpdate;
 import com.storage.model.entity.Template;
 import com.storage.repository.TemplateRepository;
+import com.storage.service.ReferenceDataPublisher;
 import com.storage.service.TemplateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,6 +18,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TemplateServiceImpl implements TemplateService {
     private final TemplateRepository repo;
+    private final ReferenceDataPublisher referenceDataPublisher;
 
     @Override
     public List<Template> getAll(Boolean isDeleted, String name) {
@@ -34,7 +36,9 @@ public class TemplateServiceImpl implements TemplateService {
                 .description(dto.getDescription())
                 .schema(dto.getSchema())
                 .build();
-        return repo.save(t);
+        Template saved = repo.save(t);
+        referenceDataPublisher.changed(ReferenceDataPublisher.TEMPLATES, saved.getId());
+        return saved;
     }
 
     @Override
@@ -50,7 +54,9 @@ public class TemplateServiceImpl implements TemplateService {
             t.setDescription(dto.getDescription());
         }
         if (dto.getIsDeleted() != null) t.setDeleted(dto.getIsDeleted());
-        return repo.save(t);
+        Template saved = repo.save(t);
+        referenceDataPublisher.changed(ReferenceDataPublisher.TEMPLATES, id);
+        return saved;
     }
 
     @Override
@@ -58,5 +64,6 @@ public class TemplateServiceImpl implements TemplateService {
         Template t = get(id);
         t.setDeleted(true);
         repo.save(t);
+        referenceDataPublisher.changed(ReferenceDataPublisher.TEMPLATES, id);
     }
 }
@@ -6,6 +6,7 @@ import com.storage.model.entity.Unit;
 import com.storage.repository.StorageObjectRepository;
 import com.storage.repository.StorageRepository;
 import com.storage.repository.UnitRepository;
+import com.storage.service.ReferenceDataPublisher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +21,7 @@ public class UnitServiceImpl implements com.storage.service.UnitService {
     private final UnitRepository unitRepo;
     private final StorageObjectRepository objectRepo;
     private final StorageRepository storageRepo;
+    private final ReferenceDataPublisher referenceDataPublisher;
 
     @GetMapping
     @Override
@@ -34,7 +36,9 @@ public class UnitServiceImpl implements com.storage.service.UnitService {
                 .name(dto.getName())
                 .symbol(dto.getSymbol())
                 .build();
-        return unitRepo.save(t);
+        Unit saved = unitRepo.save(t);
+        referenceDataPublisher.changed(ReferenceDataPublisher.UNITS, saved.getId());
+        return saved;
     }
 
     @Override
@@ -43,5 +47,6 @@ public class UnitServiceImpl implements com.storage.service.UnitService {
             throw new NotValidException("Exists objects or storages what using this unit");
         }
         unitRepo.deleteById(uuid);
+        referenceDataPublisher.changed(ReferenceDataPublisher.UNITS, uuid);
     }
 }
@@ -0,0 +1,21 @@
+package com.storage.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "image.cache")
+public class ImageCacheProperties {
+
+    private boolean enabled = true;
+    private String directory = System.getProperty("java.io.tmpdir") + "/image-cache";
+    private long maxBytes = 1024L * 1024 * 1024;
+    // объекты крупнее отдаются напрямую из MinIO и не вытесняют горячие фото
+    private long maxEntryBytes = 32L * 1024 * 1024;
+    // промахи докачиваются в фоне; когда очередь полна, объект просто не кэшируется
+    private int loaders = 2;
+    private int loadQueueCapacity = 256;
+
+}
@@ -0,0 +1,21 @@
+package com.storage.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "image.gc")
+public class ImageGcProperties {
+
+    private boolean enabled = true;
+    // не трогаем свежие объекты: их могли только что загрузить и ещё не привязать
+    private Duration gracePeriod = Duration.ofDays(1);
+    private int batchSize = 500;
+    // ограничение на просмотр и удаление, чтобы сборщик не мешал основному трафику
+    private int objectsPerSecond = 200;
+
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @Data
 @ConfigurationProperties(prefix = "minio")
@@ -11,7 +13,21 @@ public class MinioProperties {
 
     private String bucket;
     private String url;
+    // адрес, по которому MinIO доступен клиентам; на него выписываются presigned-ссылки
+    private String externalUrl;
+    private String region = "us-east-1";
+    private Duration presignExpiry = Duration.ofMinutes(10);
     private String accessKey;
     private String secretKey;
 
+    // файлы больше partSize грузятся частями параллельно, в памяти не больше uploadThreads частей
+    private long partSize = 16 * 1024 * 1024;
+    private int uploadThreads = 4;
+
+    // ключи неизменяемы, поэтому кэшируем только положительные ответы statObject для проверки ссылок;
+    // сборщик мусора кэш не сбрасывает, так что удалённый объект может считаться существующим до истечения TTL
+    private int existsCacheSize = 10_000;
+    private Duration existsCacheTtl = Duration.ofMinutes(10);
+    private int statThreads = 8;
+
 }
@@ -0,0 +1,19 @@
+package com.storage.service.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "image.rendition")
+public class RenditionProperties {
+
+    private int maxWidth = 1024;
+    private int maxHeight = 1024;
+    private int workers = 2;
+    private int queueCapacity = 64;
+    // исходники крупнее не декодируются: маленький PNG может распаковаться в гигабайты пикселей
+    private long maxSourcePixels = 40_000_000;
+
+}
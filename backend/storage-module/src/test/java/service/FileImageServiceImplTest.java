@@ -1,15 +1,21 @@
 package service;
 
 import com.storage.exception.ImageUploadException;
+import com.storage.model.dto.image.ImageMetadata;
+import com.storage.repository.ImageBlobRepository;
 import com.storage.service.impl.FileImageServiceImpl;
 import com.storage.service.props.MinioProperties;
 import io.minio.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -18,6 +24,7 @@ class FileImageServiceImplTest {
 
     private MinioClient minioClient;
     private MinioProperties minioProperties;
+    private ImageBlobRepository imageBlobRepository;
     private FileImageServiceImpl fileImageService;
 
     @BeforeEach
@@ -26,36 +33,102 @@ class FileImageServiceImplTest {
         minioProperties = new MinioProperties();
         minioProperties.setBucket("test-bucket");
 
-        fileImageService = new FileImageServiceImpl(minioClient, minioProperties);
+        imageBlobRepository = mock(ImageBlobRepository.class);
+
+        fileImageService = new FileImageServiceImpl(minioClient, minioProperties, imageBlobRepository);
+        fileImageService.start();
     }
 
     @Test
     void upload_success() throws Exception {
         MultipartFile multipartFile = mock(MultipartFile.class);
         when(multipartFile.getOriginalFilename()).thenReturn("test.png");
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
-
-        // bucketExists -> false => create bucket
-        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(false);
+        when(multipartFile.getSize()).thenReturn(4L);
+        when(multipartFile.getContentType()).thenReturn("image/png");
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream("data".getBytes()));
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("not found"));
 
         String fileName = fileImageService.upload(multipartFile);
 
-        assertNotNull(fileName);
-        assertTrue(fileName.endsWith(".png"));
+        // sha-256 of "data"
+        assertEquals("3a6eb0790f39ac87c94f3856b2dd2c5d110e6811602261a9a923d3bb23adc8b7.png", fileName);
 
-        // verify bucket creation
-        verify(minioClient, times(1)).makeBucket(any(MakeBucketArgs.class));
+        // bucket is verified at startup, not per upload
+        verify(minioClient, never()).bucketExists(any(BucketExistsArgs.class));
         // verify file save
         verify(minioClient, times(1)).putObject(any(PutObjectArgs.class));
     }
 
     @Test
-    void upload_failOnBucketCreation() throws Exception {
+    void upload_largeFileInParts() throws Exception {
+        minioProperties.setPartSize(5 * 1024 * 1024);
+        byte[] data = new byte[11 * 1024 * 1024];
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("not found"));
+
+        MultipartFile multipartFile = mock(MultipartFile.class);
+        when(multipartFile.getOriginalFilename()).thenReturn("test.png");
+        when(multipartFile.getSize()).thenReturn((long) data.length);
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(data));
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(List.of());
+
+        fileImageService.upload(multipartFile);
+
+        ArgumentCaptor<PutObjectArgs> parts = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient, times(3)).putObject(parts.capture());
+        // parts live under their own prefix and carry a per-upload nonce
+        assertTrue(parts.getAllValues().stream().allMatch(args -> args.object().startsWith("parts/")));
+        assertEquals(1, parts.getAllValues().stream()
+                .map(args -> args.object().substring(0, args.object().lastIndexOf(".part")))
+                .distinct().count());
+        verify(minioClient, times(1)).composeObject(any(ComposeObjectArgs.class));
+        verify(minioClient, times(1)).removeObjects(any(RemoveObjectsArgs.class));
+    }
+
+    @Test
+    void upload_skipsExisting() throws Exception {
+        MultipartFile multipartFile = mock(MultipartFile.class);
+        when(multipartFile.getOriginalFilename()).thenReturn("test.png");
+        when(multipartFile.getSize()).thenReturn(4L);
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream("data".getBytes()));
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(Mockito.mock(StatObjectResponse.class));
+
+        String fileName = fileImageService.upload(multipartFile);
+
+        assertTrue(fileName.endsWith(".png"));
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+        // existing object is marked as used before the check so the GC keeps it
+        var order = inOrder(imageBlobRepository, minioClient);
+        order.verify(imageBlobRepository).touch(fileName);
+        order.verify(minioClient).statObject(any(StatObjectArgs.class));
+    }
+
+    @Test
+    void upload_rewritesObjectRemovedAfterBeingCached() throws Exception {
+        String fileName = "3a6eb0790f39ac87c94f3856b2dd2c5d110e6811602261a9a923d3bb23adc8b7.png";
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(Mockito.mock(StatObjectResponse.class));
+        assertTrue(fileImageService.exists(fileName));
+
+        // the object is removed by the GC while still in the exists cache
+        reset(minioClient);
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("not found"));
+        MultipartFile multipartFile = mock(MultipartFile.class);
+        when(multipartFile.getOriginalFilename()).thenReturn("test.png");
+        when(multipartFile.getSize()).thenReturn(4L);
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream("data".getBytes()));
+
+        assertEquals(fileName, fileImageService.upload(multipartFile));
+        verify(minioClient).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    void upload_failOnPutObject() throws Exception {
         MultipartFile multipartFile = mock(MultipartFile.class);
         when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
+        when(multipartFile.getSize()).thenReturn(4L);
+        when(multipartFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream("data".getBytes()));
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("not found"));
 
-        when(minioClient.bucketExists(any())).thenThrow(new RuntimeException("connection error"));
+        when(minioClient.putObject(any())).thenThrow(new RuntimeException("connection error"));
 
         assertThrows(ImageUploadException.class, () -> fileImageService.upload(multipartFile));
     }
@@ -66,22 +139,37 @@ class FileImageServiceImplTest {
         when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
         when(multipartFile.getInputStream()).thenThrow(new RuntimeException("stream error"));
 
-        when(minioClient.bucketExists(any())).thenReturn(true);
-
         assertThrows(ImageUploadException.class, () -> fileImageService.upload(multipartFile));
     }
 
+    @Test
+    void initBucket_createsMissingBucket() throws Exception {
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(false);
+
+        fileImageService.initBucket();
+
+        verify(minioClient, times(1)).makeBucket(any(MakeBucketArgs.class));
+    }
+
     @Test
     void getObject_success() throws Exception {
-        String fileName = "file123.png";
-        byte[] data = "hello".getBytes();
         GetObjectResponse response = Mockito.mock(GetObjectResponse.class);
-        when(response.readAllBytes()).thenReturn(data);
         when(minioClient.getObject(any())).thenReturn(response);
 
-        byte[] result = fileImageService.getObject(fileName);
+        InputStream result = fileImageService.getObject("file123.png", 0, null);
+
+        assertSame(response, result);
+    }
+
+    @Test
+    void getObject_range() throws Exception {
+        GetObjectResponse response = Mockito.mock(GetObjectResponse.class);
+        when(minioClient.getObject(any())).thenReturn(response);
+
+        fileImageService.getObject("file123.png", 100, 50L);
 
-        assertArrayEquals(data, result);
+        verify(minioClient).getObject(argThat((GetObjectArgs args) ->
+                args.offset() == 100L && args.length() == 50L));
     }
 
     @Test
@@ -89,7 +177,22 @@ class FileImageServiceImplTest {
         when(minioClient.getObject(any(GetObjectArgs.class)))
                 .thenThrow(new RuntimeException("not found"));
 
-        assertThrows(RuntimeException.class, () -> fileImageService.getObject("missing.png"));
+        assertThrows(RuntimeException.class, () -> fileImageService.getObject("missing.png", 0, null));
+    }
+
+    @Test
+    void stat_success() throws Exception {
+        StatObjectResponse statResponse = Mockito.mock(StatObjectResponse.class);
+        when(statResponse.contentType()).thenReturn("image/png");
+        when(statResponse.size()).thenReturn(1024L);
+        when(statResponse.etag()).thenReturn("abc");
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(statResponse);
+
+        ImageMetadata metadata = fileImageService.stat("file.png");
+
+        assertEquals("image/png", metadata.getContentType());
+        assertEquals(1024L, metadata.getSize());
+        assertEquals("abc", metadata.getEtag());
     }
 
     @Test
@@ -113,4 +216,13 @@ class FileImageServiceImplTest {
 
         assertFalse(exists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void retainAndRelease() {
+        fileImageService.retain("file.png");
+        fileImageService.release("file.png");
+
+        verify(imageBlobRepository).retain("file.png");
+        verify(imageBlobRepository).release("file.png");
+    }
+}
@@ -0,0 +1,139 @@
+package service;
+
+import com.storage.model.dto.image.CachedImage;
+import com.storage.model.dto.image.ImageMetadata;
+import com.storage.service.FileImageService;
+import com.storage.service.impl.ImageCacheServiceImpl;
+import com.storage.service.props.ImageCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageCacheServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    private FileImageService fileImageService;
+    private ImageCacheProperties properties;
+    private ImageCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileImageService = mock(FileImageService.class);
+        properties = new ImageCacheProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxBytes(10);
+        properties.setMaxEntryBytes(8);
+
+        cacheService = new ImageCacheServiceImpl(fileImageService, properties);
+        cacheService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheService.stop();
+    }
+
+    private ImageMetadata stubImage(String fileName, String content) {
+        ImageMetadata metadata = ImageMetadata.builder()
+                .fileName(fileName).contentType("image/png").size(content.length()).build();
+        when(fileImageService.getObject(fileName, 0, null))
+                .thenAnswer(invocation -> new ByteArrayInputStream(content.getBytes()));
+        return metadata;
+    }
+
+    @Test
+    void load_missThenHit() throws Exception {
+        ImageMetadata metadata = stubImage("a.png", "hello");
+
+        assertNull(cacheService.get("a.png"));
+        CachedImage loaded = cacheService.load(metadata).get(5, TimeUnit.SECONDS);
+
+        assertSame(loaded, cacheService.get("a.png"));
+        assertSame(loaded, cacheService.load(metadata).get(5, TimeUnit.SECONDS));
+        assertEquals("hello", Files.readString(loaded.getPath()));
+        verify(fileImageService, times(1)).getObject(anyString(), anyLong(), any());
+        // size comes from the caller's stat, the object is not stat'ed again
+        verify(fileImageService, never()).stat(anyString());
+    }
+
+    @Test
+    void load_evictsLeastRecentlyUsed() throws Exception {
+        ImageMetadata a = stubImage("a.png", "aaaa");
+        ImageMetadata b = stubImage("b.png", "bbbb");
+        ImageMetadata c = stubImage("c.png", "cccc");
+
+        cacheService.load(a).get(5, TimeUnit.SECONDS);
+        cacheService.load(b).get(5, TimeUnit.SECONDS);
+        cacheService.get("a.png");
+        cacheService.load(c).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(cacheService.get("a.png"));
+        assertNull(cacheService.get("b.png"));
+    }
+
+    @Test
+    void load_tooLargeIsNotCached() throws Exception {
+        ImageMetadata metadata = stubImage("big.png", "0123456789");
+
+        assertNull(cacheService.load(metadata).get(5, TimeUnit.SECONDS));
+        verify(fileImageService, never()).getObject(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void sendFile_handsCachedFileToTomcat() throws Exception {
+        CachedImage cached = cacheService.load(stubImage("a.png", "hello")).get(5, TimeUnit.SECONDS);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        assertTrue(cacheService.sendFile(cached, 1, 3, request));
+
+        assertEquals(cached.getPath().toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(4L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void sendFile_unsupportedConnectorFallsBackToWrite() throws Exception {
+        CachedImage cached = cacheService.load(stubImage("a.png", "hello")).get(5, TimeUnit.SECONDS);
+
+        assertFalse(cacheService.sendFile(cached, 0, 5, new MockHttpServletRequest()));
+    }
+
+    @Test
+    void write_rangeFromCachedFile() throws Exception {
+        CachedImage cached = cacheService.load(stubImage("a.png", "hello")).get(5, TimeUnit.SECONDS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cacheService.write(cached, "a.png", 1, 3L, out);
+
+        assertEquals("ell", out.toString());
+        verify(fileImageService, times(1)).getObject(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void write_evictedFileFallsBackToMinio() throws Exception {
+        CachedImage cached = cacheService.load(stubImage("a.png", "hello")).get(5, TimeUnit.SECONDS);
+        Files.delete(cached.getPath());
+        when(fileImageService.getObject("a.png", 1, 3L))
+                .thenAnswer(invocation -> new ByteArrayInputStream("ell".getBytes()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cacheService.write(cached, "a.png", 1, 3L, out);
+
+        assertEquals("ell", out.toString());
+    }
+}
@@ -0,0 +1,112 @@
+package service;
+
+import com.storage.repository.ImageBlobRepository;
+import com.storage.repository.StorageObjectRepository;
+import com.storage.service.ImageGarbageCollector;
+import com.storage.service.props.ImageGcProperties;
+import com.storage.service.props.MinioProperties;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageGarbageCollectorTest {
+
+    private MinioClient minioClient;
+    private StorageObjectRepository objectRepo;
+    private ImageBlobRepository imageBlobRepository;
+    private ImageGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = mock(MinioClient.class);
+        objectRepo = mock(StorageObjectRepository.class);
+        imageBlobRepository = mock(ImageBlobRepository.class);
+
+        MinioProperties minioProperties = new MinioProperties();
+        minioProperties.setBucket("test-bucket");
+        ImageGcProperties properties = new ImageGcProperties();
+        properties.setObjectsPerSecond(100_000);
+
+        collector = new ImageGarbageCollector(minioClient, minioProperties, objectRepo, imageBlobRepository, properties);
+    }
+
+    private Result<Item> item(String name, ZonedDateTime lastModified) {
+        Item item = mock(Item.class);
+        when(item.objectName()).thenReturn(name);
+        when(item.lastModified()).thenReturn(lastModified);
+        return new Result<>(item);
+    }
+
+    // originals are listed non-recursively from the bucket root, renditions recursively under their prefix
+    private void stubListing(Iterable<Result<Item>> originals) {
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenAnswer(invocation ->
+                invocation.<ListObjectsArgs>getArgument(0).recursive() ? List.of() : originals);
+    }
+
+    @Test
+    void collect_removesOnlyOldUnreferenced() throws Exception {
+        ZonedDateTime old = ZonedDateTime.now().minusDays(10);
+        List<Result<Item>> bucket = List.of(
+                item("a.png", old),
+                item("b.png", old),
+                item("c.png", ZonedDateTime.now()));
+        stubListing(bucket);
+        when(objectRepo.findPhotoUrlsAfter(anyString(), anyInt())).thenReturn(List.of("a.png"));
+
+        collector.collect();
+
+        verify(minioClient).removeObject(argThat(args -> args != null && "b.png".equals(args.object())));
+        verify(minioClient, times(1)).removeObject(any(RemoveObjectArgs.class));
+        verify(imageBlobRepository).deleteUnused(eq(List.of("b.png")), any());
+    }
+
+    @Test
+    void collect_keepsRetainedBlob() throws Exception {
+        ZonedDateTime old = ZonedDateTime.now().minusDays(10);
+        List<Result<Item>> bucket = List.of(item("a.png", old), item("b.png", old));
+        stubListing(bucket);
+        when(objectRepo.findPhotoUrlsAfter(anyString(), anyInt())).thenReturn(List.of());
+        when(imageBlobRepository.findInUse(eq(List.of("a.png")), any())).thenReturn(List.of("a.png"));
+
+        collector.collect();
+
+        verify(minioClient, never()).removeObject(argThat(args -> args != null && "a.png".equals(args.object())));
+        verify(imageBlobRepository).deleteUnused(eq(List.of("b.png")), any());
+    }
+
+    @Test
+    void collect_keepsBlobTouchedByUploadDuringSweep() throws Exception {
+        ZonedDateTime old = ZonedDateTime.now().minusDays(10);
+        Set<String> touched = new HashSet<>();
+        List<Result<Item>> bucket = List.of(item("a.png", old), item("b.png", old));
+        stubListing(bucket);
+        when(objectRepo.findPhotoUrlsAfter(anyString(), anyInt())).thenReturn(List.of());
+        // a deduplicated upload of "a.png" touches its blob after the page was checked against photo_url
+        when(objectRepo.findReferencedPhotoUrls(anyCollection())).thenAnswer(invocation -> {
+            touched.add("a.png");
+            return List.of();
+        });
+        when(imageBlobRepository.findInUse(anyCollection(), any())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream().filter(touched::contains).toList());
+
+        collector.collect();
+
+        verify(imageBlobRepository).findInUse(eq(List.of("a.png")), any());
+        verify(minioClient, never()).removeObject(argThat(args -> args != null && "a.png".equals(args.object())));
+        verify(minioClient).removeObject(argThat(args -> args != null && "b.png".equals(args.object())));
+        verify(imageBlobRepository).deleteUnused(eq(List.of("b.png")), any());
+    }
+}
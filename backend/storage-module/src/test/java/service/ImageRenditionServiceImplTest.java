@@ -0,0 +1,91 @@
+package service;
+
+import com.storage.exception.NotValidException;
+import com.storage.service.FileImageService;
+import com.storage.service.impl.ImageRenditionServiceImpl;
+import com.storage.service.props.RenditionProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageRenditionServiceImplTest {
+
+    private FileImageService fileImageService;
+    private ImageRenditionServiceImpl renditionService;
+
+    @BeforeEach
+    void setUp() {
+        fileImageService = mock(FileImageService.class);
+        renditionService = new ImageRenditionServiceImpl(fileImageService, new RenditionProperties());
+        renditionService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        renditionService.stop();
+    }
+
+    @Test
+    void getRendition_existing() {
+        when(fileImageService.exists("renditions/64x64/photo.jpg")).thenReturn(true);
+
+        String key = renditionService.getRendition("photo.jpg", 64, 64);
+
+        assertEquals("renditions/64x64/photo.jpg", key);
+        verify(fileImageService, never()).getObject(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void getRendition_generatesScaledImage() throws Exception {
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB), "png", original);
+        when(fileImageService.exists(anyString())).thenReturn(false);
+        when(fileImageService.getObject("photo.png", 0, null))
+                .thenReturn(new ByteArrayInputStream(original.toByteArray()));
+
+        String key = renditionService.getRendition("photo.png", 64, null);
+
+        assertEquals("renditions/64x0/photo.png", key);
+        ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+        verify(fileImageService).save(eq(key), data.capture(), eq("image/png"));
+        BufferedImage rendition = ImageIO.read(new ByteArrayInputStream(data.getValue()));
+        assertEquals(64, rendition.getWidth());
+        assertEquals(32, rendition.getHeight());
+    }
+
+    @Test
+    void getRendition_sourceOverPixelLimit_isRejectedBeforeDecoding() throws Exception {
+        RenditionProperties properties = new RenditionProperties();
+        properties.setMaxSourcePixels(100);
+        ImageRenditionServiceImpl limited = new ImageRenditionServiceImpl(fileImageService, properties);
+        limited.start();
+
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB), "png", original);
+        when(fileImageService.exists(anyString())).thenReturn(false);
+        when(fileImageService.getObject("photo.png", 0, null))
+                .thenReturn(new ByteArrayInputStream(original.toByteArray()));
+
+        try {
+            assertThrows(NotValidException.class, () -> limited.getRendition("photo.png", 64, null));
+            verify(fileImageService, never()).save(anyString(), any(), anyString());
+        } finally {
+            limited.stop();
+        }
+    }
+
+    @Test
+    void getRendition_tooLarge() {
+        assertThrows(NotValidException.class, () -> renditionService.getRendition("photo.jpg", 5000, null));
+    }
+}
@@ -22,6 +22,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 
@@ -39,6 +41,7 @@ class StorageObjectServiceImplTest {
     @Mock private StorageService storageService;
     @Mock private KafkaTemplate<String, StorageData> kafkaTemplate;
     @Mock private UserContext userContext;
+    @Mock private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private StorageObjectServiceImpl service;
@@ -124,6 +127,58 @@ class StorageObjectServiceImplTest {
         assertThrows(NotFoundException.class, () -> service.create(dto));
     }
 
+    @Test
+    void create_MissingPhoto_ShouldNotLockStorage() {
+        StorageObjectCreate dto = StorageObjectCreate.builder()
+                .storageId(storageId)
+                .size(10.0)
+                .photoUrl("missing.png")
+                .build();
+
+        when(fileImageService.exists("missing.png")).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> service.create(dto));
+        verify(storageRepo, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void createAll_Success() {
+        Storage storage = Storage.builder().id(storageId).capacity(100).fullness(10).build();
+        StorageObjectCreate first = StorageObjectCreate.builder()
+                .name("First").size(20.0).storageId(storageId).unitId(unitId).templateId(templateId)
+                .photoUrl("a.png").build();
+        StorageObjectCreate second = StorageObjectCreate.builder()
+                .name("Second").size(30.0).storageId(storageId).unitId(unitId).templateId(templateId)
+                .photoUrl("a.png").build();
+
+        when(fileImageService.findMissing(List.of("a.png", "a.png"))).thenReturn(Set.of());
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(storageRepo.findByIdForUpdate(storageId)).thenReturn(Optional.of(storage));
+        when(unitRepo.findById(unitId)).thenReturn(Optional.of(Unit.builder().id(unitId).build()));
+        when(templateRepo.findById(templateId)).thenReturn(Optional.of(Template.builder().id(templateId).build()));
+        when(storageService.canAccommodate(storageId, 50.0)).thenReturn(true);
+        when(objectRepo.save(any(StorageObject.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        List<StorageObject> result = service.createAll(List.of(first, second));
+
+        assertEquals(List.of("First", "Second"), result.stream().map(StorageObject::getName).toList());
+        assertEquals(60.0, storage.getFullness());
+        verify(fileImageService, times(2)).retain("a.png");
+        verify(kafkaTemplate, times(1)).send(eq("storage-notification"), any(StorageData.class));
+    }
+
+    @Test
+    void createAll_MissingPhoto_ShouldThrowBeforeTransaction() {
+        StorageObjectCreate dto = StorageObjectCreate.builder()
+                .storageId(storageId).size(10.0).photoUrl("missing.png").build();
+
+        when(fileImageService.findMissing(List.of("missing.png"))).thenReturn(Set.of("missing.png"));
+
+        assertThrows(NotFoundException.class, () -> service.createAll(List.of(dto)));
+        verify(transactionTemplate, never()).execute(any());
+    }
+
     @Test
     void createWithFile_NoFile_ShouldThrow() {
         StorageObjectCreateWithFileDto dto = StorageObjectCreateWithFileDto.builder()
@@ -157,4 +212,28 @@ class StorageObjectServiceImplTest {
 
         assertThrows(NotFoundException.class, () -> service.delete(id));
     }
-}
\ No newline at end of file
+
+    @Test
+    void attachPhoto_ReplacesAndRetains() {
+        StorageObject obj = StorageObject.builder().id(UUID.randomUUID()).photoUrl("old.png").build();
+        when(objectRepo.findById(obj.getId())).thenReturn(Optional.of(obj));
+        when(fileImageService.exists("new.png")).thenReturn(true);
+        when(objectRepo.save(obj)).thenReturn(obj);
+
+        StorageObject result = service.attachPhoto(obj.getId(), "new.png");
+
+        assertEquals("new.png", result.getPhotoUrl());
+        verify(fileImageService).retain("new.png");
+        verify(fileImageService).release("old.png");
+    }
+
+    @Test
+    void attachPhoto_MissingFile_ShouldThrow() {
+        StorageObject obj = StorageObject.builder().id(UUID.randomUUID()).build();
+        when(objectRepo.findById(obj.getId())).thenReturn(Optional.of(obj));
+        when(fileImageService.exists("missing.png")).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> service.attachPhoto(obj.getId(), "missing.png"));
+        verify(fileImageService, never()).retain(anyString());
+    }
+}
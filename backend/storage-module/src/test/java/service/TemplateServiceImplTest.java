@@ -5,6 +5,7 @@ import com.storage.model.dto.template.TemplateCreate;
 import com.storage.model.dto.template.TemplateUpdate;
 import com.storage.model.entity.Template;
 import com.storage.repository.TemplateRepository;
+import com.storage.service.ReferenceDataPublisher;
 import com.storage.service.impl.TemplateServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,12 +19,14 @@ import static org.mockito.Mockito.*;
 class TemplateServiceImplTest {
 
     private TemplateRepository repo;
+    private ReferenceDataPublisher referenceDataPublisher;
     private TemplateServiceImpl service;
 
     @BeforeEach
     void setUp() {
         repo = mock(TemplateRepository.class);
-        service = new TemplateServiceImpl(repo);
+        referenceDataPublisher = mock(ReferenceDataPublisher.class);
+        service = new TemplateServiceImpl(repo, referenceDataPublisher);
     }
 
     @Test
@@ -68,6 +71,7 @@ class TemplateServiceImplTest {
         assertNotNull(result.getId());
         assertEquals(dto.getName(), result.getName());
         verify(repo, times(1)).save(any(Template.class));
+        verify(referenceDataPublisher).changed(ReferenceDataPublisher.TEMPLATES, saved.getId());
     }
 
     @Test
@@ -142,5 +146,6 @@ class TemplateServiceImplTest {
 
         assertTrue(existing.isDeleted());
         verify(repo).save(existing);
+        verify(referenceDataPublisher).changed(ReferenceDataPublisher.TEMPLATES, id);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.storage.model.entity.Unit;
 import com.storage.repository.StorageObjectRepository;
 import com.storage.repository.StorageRepository;
 import com.storage.repository.UnitRepository;
+import com.storage.service.ReferenceDataPublisher;
 import com.storage.service.impl.UnitServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,9 @@ class UnitServiceImplTest {
     @Mock
     private StorageRepository storageRepo;
 
+    @Mock
+    private ReferenceDataPublisher referenceDataPublisher;
+
     @InjectMocks
     private UnitServiceImpl unitService;
 
@@ -97,6 +101,7 @@ class UnitServiceImplTest {
         assertEquals(testUnit.getName(), result.getName());
         assertEquals(testUnit.getSymbol(), result.getSymbol());
         verify(unitRepo, times(1)).save(any(Unit.class));
+        verify(referenceDataPublisher).changed(ReferenceDataPublisher.UNITS, testUuid);
     }
 
     @Test
@@ -155,6 +160,7 @@ class UnitServiceImplTest {
         verify(objectRepo, times(1)).findByUnitId(testUuid);
         verify(storageRepo, times(1)).findByUnitId(testUuid);
         verify(unitRepo, times(1)).deleteById(testUuid);
+        verify(referenceDataPublisher).changed(ReferenceDataPublisher.UNITS, testUuid);
     }
 
     @Test
@@ -195,6 +201,7 @@ class UnitServiceImplTest {
         verify(objectRepo, times(1)).findByUnitId(testUuid);
         verify(storageRepo, times(1)).findByUnitId(testUuid);
         verify(unitRepo, never()).deleteById(any());
+        verifyNoInteractions(referenceDataPublisher);
     }
 
     @Test